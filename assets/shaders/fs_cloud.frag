@@ -12,7 +12,15 @@ struct Material {
     int hasAlbedoMap;
 };
 
-uniform float timeOfDay; // 0.0 = night, 0.25 = dawn, 0.5 = day, 0.75 = dusk
+// Shared per-frame data, filled by FrameUniforms;
+// frame.timeOfDay: 0.0 = night, 0.25 = dawn, 0.5 = day, 0.75 = dusk
+layout (std140) uniform FrameData {
+    mat4 view;
+    mat4 projection;
+    mat4 viewProjection;
+    vec3 viewPos;
+    float timeOfDay;
+} frame;
 
 uniform vec3 nightTint;
 uniform vec3 dawnTint;
@@ -31,7 +39,7 @@ void main() {
     float alpha = material.opacity;
 
     // Wrap timeOfDay to [0, 1] range just in case
-    float time = fract(timeOfDay);
+    float time = fract(frame.timeOfDay);
 
     vec3 tintColor;
 
@@ -3,7 +3,14 @@
 in vec3 TexCoords;
 out vec4 FragColor;
 
-uniform float timeOfDay; // 0.0 to 1.0
+// Shared per-frame data, filled by FrameUniforms; frame.timeOfDay runs 0.0 to 1.0
+layout (std140) uniform FrameData {
+    mat4 view;
+    mat4 projection;
+    mat4 viewProjection;
+    vec3 viewPos;
+    float timeOfDay;
+} frame;
 
 // Night (midnight)
 uniform vec3 nightColorTop;
@@ -95,7 +102,7 @@ void main() {
     float t = dir.y; // Vertical position (-1 to 1)
     
     // Wrap timeOfDay to [0, 1] range just in case
-    float time = fract(timeOfDay);
+    float time = fract(frame.timeOfDay);
 
     vec3 skyColor;
 
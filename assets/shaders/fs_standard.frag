@@ -6,32 +6,40 @@ in vec2 aTexCoord;
 
 out vec4 fragColor;
 
-uniform vec3 viewPos;
+// Shared per-frame data, filled by FrameUniforms
+layout (std140) uniform FrameData {
+    mat4 view;
+    mat4 projection;
+    mat4 viewProjection;
+    vec3 viewPos;
+    float timeOfDay;
+} frame;
 
 #define MAX_LIGHTS 8
 
+// Members are paired so each vec3 shares its std140 slot with a scalar;
+// the layout must match FrameUniforms
 struct Light {
     vec3 position;
+    float intensity;
     vec3 ambient;
+    float constant;   // Attenuation (for point & spot lights)
     vec3 diffuse;
-    vec3 specular;
-    
-    int type;  // 0=directional, 1=point, 2=spot
-    
-    // Attenuation (for point & spot lights)
-    float constant;
     float linear;
+    vec3 specular;
     float quadratic;
-    
+
     // Spotlight
     vec3 direction;
     float cutOff;
+    int type;  // 0=directional, 1=point, 2=spot
     float outerCutOff;
-    float intensity;
 };
 
-uniform Light lights[MAX_LIGHTS];
-uniform int numActiveLights;
+layout (std140) uniform LightData {
+    Light lights[MAX_LIGHTS];
+    int numActiveLights;
+};
 
 struct Material {
   vec3 ambient;
@@ -109,7 +117,7 @@ vec3 ApplyLight(
 
 void main() {
     vec3 normal = normalize(aNormal);
-    vec3 viewDir = normalize(viewPos - aPos);
+    vec3 viewDir = normalize(frame.viewPos - aPos);
 
     float alpha = 1.0;
 
@@ -0,0 +1,37 @@
+#version 330 core
+
+// Instanced variant of vs_standard.vert: the model matrix arrives per
+// instance in attributes 3-6 instead of as a uniform
+
+layout (location = 0) in vec3 position;
+layout (location = 1) in vec3 normal;
+layout (location = 2) in vec2 texCoord;
+layout (location = 3) in mat4 instanceModel;
+
+out vec3 aPos;
+out vec3 aNormal;
+out vec2 aTexCoord;
+
+// Shared per-frame data, filled by FrameUniforms
+layout (std140) uniform FrameData {
+  mat4 view;
+  mat4 projection;
+  mat4 viewProjection;
+  vec3 viewPos;
+  float timeOfDay;
+} frame;
+
+uniform vec2 uvScale = vec2(1.0, 1.0);
+uniform vec2 uvOffset = vec2(0.0, 0.0);
+
+void main() {
+  vec4 worldPos = instanceModel * vec4(position, 1.0);
+  gl_Position = frame.viewProjection * worldPos;
+  aPos = vec3(worldPos);
+
+  mat3 normalMatrix = mat3(transpose(inverse(instanceModel)));
+  aNormal = normalize(normalMatrix * normal);
+
+  // pass texture on even if no textures used. Shader will ignore it.
+  aTexCoord = texCoord * uvScale + uvOffset;
+}
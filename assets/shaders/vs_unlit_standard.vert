@@ -8,15 +8,24 @@ out vec3 aPos;
 out vec3 aNormal;            
 out vec2 aTexCoord;
 
+// Shared per-frame data, filled by FrameUniforms
+layout (std140) uniform FrameData {
+    mat4 view;
+    mat4 projection;
+    mat4 viewProjection;
+    vec3 viewPos;
+    float timeOfDay;
+} frame;
+
 uniform mat4 model;
-uniform mat4 mvpMatrix;
 
 uniform vec2 uvScale = vec2(1.0, 1.0);
 uniform vec2 uvOffset = vec2(0.0, 0.0);
 
 void main() {
-    gl_Position = mvpMatrix * vec4(position, 1.0);
-    aPos = vec3(model*vec4(position, 1.0f));
+    vec4 worldPos = model * vec4(position, 1.0);
+    gl_Position = frame.viewProjection * worldPos;
+    aPos = vec3(worldPos);
 
     mat3 normalMatrix = mat3(transpose(inverse(model)));
     aNormal = normalize(normalMatrix * normal);
@@ -0,0 +1,147 @@
+package engine.bench;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A small self-contained micro-benchmark harness.
+ *
+ * Each benchmark is warmed up, then timed over several fixed-length
+ * iterations. Throughput is reported in ops/s (mean and standard
+ * deviation across iterations) along with the bytes allocated per op,
+ * measured with the per-thread allocation counter.
+ *
+ * Settings (system properties):
+ *   bench.warmup      warmup iterations (default 5)
+ *   bench.iterations  measured iterations (default 5)
+ *   bench.time        milliseconds per iteration (default 500)
+ *   bench.out         write results to this CSV file
+ *   bench.baseline    compare against a CSV written by an earlier run
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class Bench {
+
+    public interface Op {
+        void run();
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Results are folded in here so the JIT cannot discard the work
+    private static float floatSink;
+    private static int hashSink;
+
+    private final int warmupIterations = Integer.getInteger("bench.warmup", 5);
+    private final int iterations = Integer.getInteger("bench.iterations", 5);
+    private final long iterationNanos = Long.getLong("bench.time", 500) * 1_000_000L;
+    private final String filter;
+
+    private final List<String> results = new ArrayList<>();
+    private final Map<String, Double> baseline = new HashMap<>();
+
+    public Bench(String filter) {
+        this.filter = filter;
+        String baselinePath = System.getProperty("bench.baseline");
+        if (baselinePath != null) {
+            loadBaseline(Paths.get(baselinePath));
+        }
+        System.out.printf("%-44s %14s %12s %10s %9s%n", "Benchmark", "ops/s", "error", "B/op", "vs base");
+    }
+
+    public static void consume(float f) {
+        floatSink += f;
+    }
+
+    public static void consume(Object o) {
+        hashSink ^= System.identityHashCode(o);
+    }
+
+    // Times op, which performs opsPerCall operations per invocation
+    public void run(String name, int opsPerCall, Op op) {
+        if (filter != null && !name.contains(filter)) {
+            return;
+        }
+
+        for (int i = 0; i < warmupIterations; i++) {
+            iterate(op);
+        }
+
+        double[] throughput = new double[iterations];
+        long totalOps = 0;
+        long totalBytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            long threadId = Thread.currentThread().getId();
+            long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            long calls = iterate(op);
+            long elapsed = System.nanoTime() - start;
+            totalBytes += THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+            totalOps += calls * opsPerCall;
+            throughput[i] = calls * opsPerCall * 1e9 / elapsed;
+        }
+
+        double mean = 0;
+        for (double t : throughput) mean += t;
+        mean /= iterations;
+        double variance = 0;
+        for (double t : throughput) variance += (t - mean) * (t - mean);
+        double error = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0;
+        double bytesPerOp = (double) totalBytes / totalOps;
+
+        Double base = baseline.get(name);
+        String ratio = (base == null) ? "" : String.format("%.2fx", mean / base);
+        System.out.printf("%-44s %14.1f %12.1f %10.2f %9s%n", name, mean, error, bytesPerOp, ratio);
+        results.add(name + "," + mean + "," + error + "," + bytesPerOp);
+    }
+
+    // Calls op repeatedly for one iteration's worth of time, checking the clock every 64 calls
+    private long iterate(Op op) {
+        long end = System.nanoTime() + iterationNanos;
+        long calls = 0;
+        do {
+            for (int i = 0; i < 64; i++) {
+                op.run();
+            }
+            calls += 64;
+        } while (System.nanoTime() < end);
+        return calls;
+    }
+
+    public void finish() {
+        String outPath = System.getProperty("bench.out");
+        if (outPath != null) {
+            try {
+                Files.write(Paths.get(outPath), results, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                System.err.println("Failed to write benchmark results: " + e.getMessage());
+            }
+        }
+        // Printing the sinks keeps them live
+        System.out.println("(sink " + floatSink + " " + hashSink + ")");
+    }
+
+    private void loadBaseline(Path path) {
+        try {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                String[] parts = line.split(",");
+                if (parts.length >= 2) {
+                    baseline.put(parts[0], Double.parseDouble(parts[1]));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Failed to read benchmark baseline: " + e.getMessage());
+        }
+    }
+}
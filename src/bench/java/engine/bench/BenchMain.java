@@ -0,0 +1,17 @@
+package engine.bench;
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+
+// Runs every benchmark, or only those whose name contains the first argument
+public class BenchMain {
+
+    public static void main(String[] args) {
+        Bench bench = new Bench(args.length > 0 ? args[0] : null);
+        MathBench.register(bench);
+        TransformBench.register(bench);
+        TransformScalingBench.register(bench);
+        bench.finish();
+    }
+}
@@ -0,0 +1,74 @@
+package engine.bench;
+
+import engine.gmaths.Mat4;
+import engine.gmaths.Mat4Batch;
+import engine.gmaths.Mat4Transform;
+import engine.gmaths.Vec3;
+import engine.math.BezierCurve;
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+
+// Benchmarks for the engine.gmaths primitives and BezierCurve
+public final class MathBench {
+
+    private static final int BATCH = 1024;
+
+    private MathBench() {
+    }
+
+    public static void register(Bench bench) {
+        Mat4 a = new Mat4().setTRS(1, 2, 3, 10, 20, 30, 1, 1, 1);
+        Mat4 b = new Mat4().setTRS(-4, 0.5f, 2, -45, 5, 90, 0.3f, 0.3f, 0.3f);
+        Mat4 out = new Mat4();
+
+        bench.run("Mat4.multiply", 1, () -> Bench.consume(Mat4.multiply(a, b)));
+        bench.run("Mat4.multiplyInto", 1, () -> Bench.consume(Mat4.multiplyInto(a, b, out)));
+        bench.run("Mat4.setTRS", 1, () -> Bench.consume(out.setTRS(1, 2, 3, 10, 20, 30, 2, 2, 2)));
+
+        float[] left = new float[BATCH * Mat4Batch.STRIDE];
+        float[] right = new float[BATCH * Mat4Batch.STRIDE];
+        float[] product = new float[BATCH * Mat4Batch.STRIDE];
+        for (int i = 0; i < BATCH; i++) {
+            a.copyTo(left, i * Mat4Batch.STRIDE);
+            b.copyTo(right, i * Mat4Batch.STRIDE);
+        }
+        bench.run("Mat4Batch.multiply", BATCH, () -> {
+            Mat4Batch.multiply(left, right, product, BATCH);
+            Bench.consume(product[0]);
+        });
+
+        bench.run("Mat4Transform.inverse", 1, () -> Bench.consume(Mat4Transform.inverse(a)));
+        bench.run("Mat4Transform.inverseAffine", 1, () -> Bench.consume(Mat4Transform.inverseAffine(b, out)));
+        Vec3 eye = new Vec3(3, 4, 5);
+        Vec3 target = new Vec3(0, 1, 0);
+        Vec3 up = new Vec3(0, 1, 0);
+        bench.run("Mat4Transform.lookAt", 1, () -> Bench.consume(Mat4Transform.lookAt(eye, target, up, out)));
+
+        Vec3 v = new Vec3(1, 2, 3);
+        Vec3 w = new Vec3(-3, 0.5f, 2);
+        Vec3 r = new Vec3();
+        bench.run("Vec3.add", 1, () -> Bench.consume(Vec3.add(v, w)));
+        bench.run("Vec3.addInto", 1, () -> Bench.consume(Vec3.add(v, w, r)));
+        bench.run("Vec3.crossProduct", 1, () -> Bench.consume(Vec3.crossProduct(v, w)));
+        bench.run("Vec3.crossProductInto", 1, () -> Bench.consume(Vec3.crossProductInto(v, w, r)));
+        bench.run("Vec3.normalizeInto", 1, () -> Bench.consume(Vec3.normalizeInto(v, r)));
+
+        BezierCurve curve = new BezierCurve(
+            new Vec3(0, 0, 0), new Vec3(1, 3, 0), new Vec3(4, 3, 2), new Vec3(5, 0, 2));
+        float[] u = {0.1f};
+        bench.run("BezierCurve.evaluate", 1, () -> {
+            u[0] = (u[0] > 0.99f) ? 0.01f : u[0] + 0.01f;
+            Bench.consume(curve.evaluate(u[0]));
+        });
+        bench.run("BezierCurve.evaluateInto", 1, () -> {
+            u[0] = (u[0] > 0.99f) ? 0.01f : u[0] + 0.01f;
+            Bench.consume(curve.evaluate(u[0], r));
+        });
+        bench.run("BezierCurve.tangentNormalizedInto", 1, () -> {
+            u[0] = (u[0] > 0.99f) ? 0.01f : u[0] + 0.01f;
+            Bench.consume(curve.tangentNormalized(u[0], r));
+        });
+    }
+}
@@ -0,0 +1,133 @@
+package engine.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import engine.components.Transform;
+import engine.components.TransformStore;
+import engine.scene.GameObject;
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+
+// Benchmarks Transform hierarchies shaped like the bee rig in assignment.yaml
+public final class TransformBench {
+
+    private static final int[] INSTANCES = {1, 100, 10_000};
+
+    // One bee: the moving root, the flapping wing pivots and every node that gets rendered
+    static final class Bee {
+        Transform root;
+        Transform leftWingPivot;
+        Transform rightWingPivot;
+        TransformStore store;
+        final List<Transform> nodes = new ArrayList<>();
+    }
+
+    private TransformBench() {
+    }
+
+    public static void register(Bench bench) {
+        for (int count : INSTANCES) {
+            TransformStore store = new TransformStore(count * 22);
+            Bee[] bees = new Bee[count];
+            for (int i = 0; i < count; i++) {
+                bees[i] = buildBee(store);
+            }
+            float[] time = {0f};
+
+            // The controller moves the root and flaps the wings, then every
+            // world matrix is read and resolved lazily, with no update pass
+            bench.run("Transform.beeFrame[" + count + "]", 1, () -> {
+                float t = time[0] += 0.016f;
+                float flap = (float) Math.sin(t * 40f) * 30f;
+                for (Bee bee : bees) {
+                    bee.root.SetLocalPosition((float) Math.cos(t), 3f, (float) Math.sin(t));
+                    bee.leftWingPivot.SetLocalRotation(0f, 0f, 210f + flap);
+                    bee.rightWingPivot.SetLocalRotation(0f, 0f, -30f - flap);
+                    for (Transform node : bee.nodes) {
+                        Bench.consume(node.getWorldMatrix());
+                    }
+                }
+            });
+
+            // A frame as the engine runs it: the same changes, then one
+            // update pass (Scene.UpdateTransforms), then rendering reads
+            bench.run("Transform.beeFrameSweep[" + count + "]", 1, () -> {
+                float t = time[0] += 0.016f;
+                float flap = (float) Math.sin(t * 40f) * 30f;
+                for (Bee bee : bees) {
+                    bee.root.SetLocalPosition((float) Math.cos(t), 3f, (float) Math.sin(t));
+                    bee.leftWingPivot.SetLocalRotation(0f, 0f, 210f + flap);
+                    bee.rightWingPivot.SetLocalRotation(0f, 0f, -30f - flap);
+                }
+                store.updateWorldMatrices();
+                for (Bee bee : bees) {
+                    for (Transform node : bee.nodes) {
+                        Bench.consume(node.getWorldMatrix());
+                    }
+                }
+            });
+
+            // Reading world matrices when nothing has moved
+            bench.run("Transform.getWorldMatrixClean[" + count + "]", 1, () -> {
+                for (Bee bee : bees) {
+                    for (Transform node : bee.nodes) {
+                        Bench.consume(node.getWorldMatrix());
+                    }
+                }
+            });
+        }
+    }
+
+    static Bee buildBee(TransformStore store) {
+        Bee bee = new Bee();
+        bee.store = store;
+        GameObject root = node(bee, null, 0, 3, 0, 0, -90, 0, 0.3f, 0.3f, 0.3f);
+        bee.root = root.getTransform();
+
+        GameObject body = node(bee, root, 0, 0, 0, -90, 0, 0, 1, 0.9f, 1);
+
+        GameObject rightWingPivot = node(bee, body, 0.25f, 0, 0.35f, 0, 0, -30, 1, 1, 1);
+        node(bee, rightWingPivot, 0.7f, 0, 0, 0, 0, 0, 1.4f, 0.7f, 0.1f);
+        bee.rightWingPivot = rightWingPivot.getTransform();
+
+        GameObject leftWingPivot = node(bee, body, -0.25f, 0, 0.35f, 0, 0, 210, 1, 1, 1);
+        node(bee, leftWingPivot, 0.7f, 0, 0, 0, 0, 0, 1.4f, 0.7f, 0.1f);
+        bee.leftWingPivot = leftWingPivot.getTransform();
+
+        GameObject buttPivot = node(bee, body, 0, -0.25f, 0, 20, 0, 0, 1, 1, 1);
+        node(bee, buttPivot, 0, -0.75f, 0, 0, 0, 0, 0.95f, 1.5f, 0.95f);
+
+        GameObject headPivot = node(bee, body, 0, 0.5f, 0, -20, 0, 0, 1, 1, 1);
+        GameObject head = node(bee, headPivot, 0, 0.1f, 0, 0, 0, 0, 0.75f, 0.75f, 0.75f);
+        node(bee, head, -0.25f, 0.1f, 0.1f, 10, 0, 0, 0.45f, 0.7f, 0.6f);
+        node(bee, head, 0.25f, 0.1f, 0.1f, 10, 0, 0, 0.45f, 0.7f, 0.6f);
+
+        for (int side = -1; side <= 1; side += 2) {
+            GameObject antennaPivot = node(bee, head, 0.15f * side, -0.1f, 0.4f, 0, -20 * side, 0, 1, 1, 1);
+            GameObject antenna = node(bee, antennaPivot, 0, 0, 0.25f, 90, 0, 0, 0.05f, 0.05f, 0.05f);
+            GameObject antenna2Pivot = node(bee, antenna, 0, 5, 0, -45, 0, 30 * -side, 1, 1, 1);
+            GameObject antenna2 = node(bee, antenna2Pivot, 0, 2.5f, 0, 0, 0, 0, 1, 1, 1);
+            node(bee, antenna2, 0, 2.5f, 0, 0, 0, 0, 1, 1, 1);
+        }
+        return bee;
+    }
+
+    private static GameObject node(Bee bee, GameObject parent,
+                                   float px, float py, float pz,
+                                   float rx, float ry, float rz,
+                                   float sx, float sy, float sz) {
+        GameObject go = new GameObject(bee.store);
+        Transform t = go.getTransform();
+        t.SetLocalPosition(px, py, pz);
+        t.SetLocalRotation(rx, ry, rz);
+        t.SetLocalScale(sx, sy, sz);
+        if (parent != null) {
+            parent.addChild(go);
+        }
+        bee.nodes.add(t);
+        return go;
+    }
+}
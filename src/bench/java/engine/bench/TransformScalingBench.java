@@ -0,0 +1,89 @@
+package engine.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import engine.bench.TransformBench.Bee;
+import engine.components.TransformStore;
+import engine.scene.GameObject;
+import engine.scene.Scene;
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+
+// Measures how the parallel transform update scales with worker threads.
+// Only the update pass is timed; allocation figures cover the calling thread only.
+public final class TransformScalingBench {
+
+    private static final int BEES = 10_000;
+
+    private TransformScalingBench() {
+    }
+
+    public static void register(Bench bench) {
+        // Every bee its own root, as in the assignment scene
+        TransformStore rootsStore = new TransformStore(BEES * 22);
+        Bee[] roots = buildSwarm(rootsStore, null);
+
+        // Every bee under one parent, so the work sits in a single large child list
+        TransformStore swarmStore = new TransformStore(BEES * 22 + 1);
+        GameObject swarm = new GameObject(swarmStore);
+        Bee[] swarmed = buildSwarm(swarmStore, swarm);
+
+        List<Integer> threadCounts = new ArrayList<>();
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int t = 1; t < cores; t *= 2) {
+            threadCounts.add(t);
+        }
+        threadCounts.add(cores);
+
+        bench.run("TransformUpdate.roots[" + BEES + "]/sequential", 1, () -> {
+            animate(roots);
+            rootsStore.updateWorldMatrices();
+        });
+        bench.run("TransformUpdate.swarm[" + BEES + "]/sequential", 1, () -> {
+            animate(swarmed);
+            swarmStore.updateWorldMatrices();
+        });
+
+        for (int threads : threadCounts) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            int threshold = Scene.DEFAULT_PARALLEL_TRANSFORM_THRESHOLD;
+            bench.run("TransformUpdate.roots[" + BEES + "]/threads=" + threads, 1, () -> {
+                animate(roots);
+                rootsStore.updateWorldMatricesParallel(pool, threshold);
+            });
+            bench.run("TransformUpdate.swarm[" + BEES + "]/threads=" + threads, 1, () -> {
+                animate(swarmed);
+                swarmStore.updateWorldMatricesParallel(pool, threshold);
+            });
+            pool.shutdown();
+        }
+    }
+
+    private static Bee[] buildSwarm(TransformStore store, GameObject parent) {
+        Bee[] bees = new Bee[BEES];
+        for (int i = 0; i < BEES; i++) {
+            bees[i] = TransformBench.buildBee(store);
+            if (parent != null) {
+                parent.addChild(bees[i].root.getGameObject());
+            }
+        }
+        return bees;
+    }
+
+    private static float time = 0f;
+
+    // Moves every root and flaps every pair of wings, dirtying the whole hierarchy
+    private static void animate(Bee[] bees) {
+        float t = time += 0.016f;
+        float flap = (float) Math.sin(t * 40f) * 30f;
+        for (Bee bee : bees) {
+            bee.root.SetLocalPosition((float) Math.cos(t), 3f, (float) Math.sin(t));
+            bee.leftWingPivot.SetLocalRotation(0f, 0f, 210f + flap);
+            bee.rightWingPivot.SetLocalRotation(0f, 0f, -30f - flap);
+        }
+    }
+}
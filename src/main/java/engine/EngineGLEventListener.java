@@ -6,6 +6,7 @@ import assets.models.Cube;
 import assets.models.Pyramid;
 import assets.models.Sphere;
 import engine.gmaths.*;
+import engine.rendering.GLStateCache;
 import engine.rendering.Mesh;
 import engine.rendering.Shader;
 import engine.components.Camera;
@@ -85,10 +86,12 @@ public class EngineGLEventListener implements GLEventListener {
 
     public void render(GL3 gl){
         gl.glClear(GL.GL_COLOR_BUFFER_BIT | GL.GL_DEPTH_BUFFER_BIT);
+        GLStateCache.beginFrame();
 
         activeScene.passGLcontext(gl);
 
         activeScene.Update();
+        activeScene.UpdateTransforms();
         activeScene.render(gl);
 
         Camera mainCamera = activeScene.getMainCameraInstance();
@@ -34,6 +34,12 @@ public class Camera extends Component{
 
     private Mat4 perspective;
 
+    // scratch state reused every frame
+    private final Mat4 view = new Mat4(1);
+    private int viewVersion = -1;   // transform world version the view was built from
+    private final Vec3 scratchTarget = new Vec3();
+    private final Vec3 translation = new Vec3();
+
     public boolean isMovementEnabled() {
         return movementEnabled;
     }
@@ -63,14 +69,21 @@ public class Camera extends Component{
         return perspective;
     }
 
+    // Returns a matrix owned by the camera, rebuilt only when the camera has moved
     public Mat4 getViewMatrix() {
         Transform t = getGameObject().getTransform();
+        int version = t.getWorldVersion();
+        if (version == viewVersion) {
+            return view;
+        }
 
-        Vec3 pos = t.GetWorldPosition();
-        Vec3 forward = t.GetForward();
-        Vec3 up = t.GetUp();
+        Vec3 pos = t.GetWorldPositionReadOnly();
+        Vec3 forward = t.GetForwardReadOnly();
+        Vec3 up = t.GetUpReadOnly();
 
-        return Mat4Transform.lookAt(pos, Vec3.add(pos, forward), up);
+        Mat4Transform.lookAt(pos, Vec3.add(pos, forward, scratchTarget), up, view);
+        viewVersion = version;
+        return view;
     }
 
     // -------------------------------------------------------------------------
@@ -86,37 +99,37 @@ public class Camera extends Component{
 
         float base = moveSpeed;
         float speed = (m.isFast() ? base * fastMultiplier : base);
-        Vec3 translation = new Vec3(0,0,0);
+        translation.set(0,0,0);
 
         switch (m) {
             case FORWARD:
             case FAST_FORWARD:
-                translation = Vec3.multiply(t.GetForward(), speed);
+                t.GetForward(translation).multiply(speed);
                 break;
 
             case BACK:
             case FAST_BACK:
-                translation = Vec3.multiply(t.GetForward(), -speed);
+                t.GetForward(translation).multiply(-speed);
                 break;
 
             case LEFT:
             case FAST_LEFT:
-                translation = Vec3.multiply(t.GetRight(), -speed);
+                t.GetRight(translation).multiply(-speed);
                 break;
 
             case RIGHT:
             case FAST_RIGHT:
-                translation = Vec3.multiply(t.GetRight(), speed);
+                t.GetRight(translation).multiply(speed);
                 break;
 
             case UP:
             case FAST_UP:
-                translation = Vec3.multiply(t.GetUp(), speed);
+                t.GetUp(translation).multiply(speed);
                 break;
 
             case DOWN:
             case FAST_DOWN:
-                translation = Vec3.multiply(t.GetUp(), -speed);
+                t.GetUp(translation).multiply(-speed);
                 break;
 
             default: break;
@@ -32,9 +32,6 @@ public class Light extends Component{
 
     // Intensity multiplier
     private float intensity = 1.0f;
-    
-    // Enable/disable
-    private boolean enabled = true;
 
     // Getters/Setters
     public LightType getType() { return type; }
@@ -66,14 +63,15 @@ public class Light extends Component{
     
     public float getIntensity() { return intensity; }
     public void setIntensity(float intensity) { this.intensity = intensity; }
-    
-    public boolean isEnabled() { return enabled; }
-    public void setEnabled(boolean enabled) { this.enabled = enabled; }
 
     // Get world position from Transform
     public Vec3 getPosition() {
         return gameObject.getTransform().GetWorldPosition();
     }
+
+    public Vec3 getPosition(Vec3 out) {
+        return gameObject.getTransform().GetWorldPosition(out);
+    }
     
     // Get forward direction for directional/spot lights
     public Vec3 getDirection() {
@@ -81,4 +79,8 @@ public class Light extends Component{
         // Assuming forward is -Z in local space
         return gameObject.getTransform().GetForward();
     }
+
+    public Vec3 getDirection(Vec3 out) {
+        return gameObject.getTransform().GetForward(out);
+    }
 }
@@ -1,13 +1,13 @@
 package engine.components;
 
-import java.util.List;
-
 import com.jogamp.opengl.GL3;
 
 import engine.components.core.Component;
 import engine.components.core.Renderable;
 import engine.gmaths.Mat4;
+import engine.gmaths.Mat4Batch;
 import engine.gmaths.Vec3;
+import engine.rendering.LightSnapshot;
 import engine.rendering.Material;
 import engine.rendering.Mesh;
 /* I declare that this code is my own work*/
@@ -18,22 +18,82 @@ public class MeshRenderer extends Component implements Renderable{
     private Mesh mesh;
     private Material material;
 
+    // Set by bakeStatic: the world matrix and bounds, fixed from then on
+    private Mat4 staticModel;
+    private final float[] staticBounds = new float[6];
+
+    // Frame number of the last frame this renderer passed the frustum test
+    private int visibleFrame = -1;
+
     public MeshRenderer(Mesh mesh, Material material) {
         this.mesh = mesh;
         this.material = material;
     }
 
+    /**
+     * The material to change for this renderer alone. A material loaded
+     * from YAML may be shared by every renderer using that file (see
+     * MaterialLoader), so the first call on a shared one swaps in a copy
+     * owned by this renderer; changes to it affect no other object.
+     */
     public Material getMaterial() {
+        if (material.isShared()) {
+            material = new Material(material);
+        }
+        return material;
+    }
+
+    // The material this renderer draws with, possibly shared; read it, do not change it
+    public Material getSharedMaterial() {
         return material;
     }
 
+    public Mesh getMesh() {
+        return mesh;
+    }
+
+    // Captures the current world matrix and bounds; the Transform must be baked too
+    public void bakeStatic() {
+        getWorldBounds(staticBounds, 0);
+        staticModel = new Mat4(gameObject.getTransform().getWorldMatrix());
+    }
+
+    public boolean isStatic() {
+        return staticModel != null;
+    }
+
+    public void markVisible(int frame) {
+        visibleFrame = frame;
+    }
+
+    public boolean isVisible(int frame) {
+        return visibleFrame == frame;
+    }
+
+    // The matrix this renderer draws with: the baked one if static, else the live world matrix
+    public Mat4 getModelMatrix() {
+        return (staticModel != null) ? staticModel : gameObject.getTransform().getWorldMatrix();
+    }
+
+    // Writes the world-space bounding box (min x, y, z, max x, y, z) to out[offset]
+    public void getWorldBounds(float[] out, int offset) {
+        if (staticModel != null) {
+            System.arraycopy(staticBounds, 0, out, offset, 6);
+            return;
+        }
+        Transform transform = gameObject.getTransform();
+        TransformStore store = transform.getStore();
+        store.resolve(transform.getStoreIndex());
+        Mat4Batch.transformBounds(store.getWorldArray(), transform.getStoreIndex() * Mat4Batch.STRIDE,
+                                  mesh.getLocalBounds(), 0, out, offset);
+    }
+
     @Override
-    public void render(GL3 gl, Mat4 view, Mat4 projection, Vec3 cameraPosition, List<Light> lights
+    public void render(GL3 gl, Mat4 view, Mat4 projection, Vec3 cameraPosition, LightSnapshot lights
     ) {
-        Mat4 model = gameObject.getTransform().getWorldMatrix();
+        Mat4 model = getModelMatrix();
         material.useShader(gl);
-        material.setTransformUniforms(gl, model, view, projection, cameraPosition);
-        material.setLightsUniform(gl, lights);
+        material.setTransformUniforms(gl, model);
         material.apply(gl);
         mesh.render(gl);
         material.restore(gl);
@@ -5,91 +5,193 @@ import com.jogamp.opengl.GL3;
 import engine.components.core.Component;
 import engine.gmaths.Mat4;
 import engine.gmaths.Mat4Transform;
+import engine.gmaths.Quat;
 import engine.gmaths.Vec3;
+import engine.gmaths.Vec3Pool;
 import engine.scene.GameObject;
 /* I declare that this code is my own work, adapted from Lab Code*/
 /* Author Jakub Bala 
 jbala1@sheffield.ac.uk
 */
 public class Transform extends Component{
-    // LOCAL space (relative to parent)
-    private Vec3 local_position = new Vec3(0, 0, 0);
-    private Vec3 local_rotation = new Vec3(0, 0, 0); // Euler angles
-    private Vec3 local_scale = new Vec3(1, 1, 1);
+    // Local TRS, world matrix and parent link live in a TransformStore slot;
+    // this object is a handle to it
+    private final TransformStore store;
+    private int index;              // -1 once disposed
     private boolean debugAxesEnabled = false;
 
-    // WORLD space (cached, recalculated when dirty)
-    private Mat4 worldMatrix;
-    private boolean isDirty = true;
+    // LOCAL space views, refreshed from the store when read (treat as read-only)
+    private final Vec3 local_position = new Vec3(0, 0, 0);
+    private final Quat local_rotation = new Quat();
+    private final Vec3 local_scale = new Vec3(1, 1, 1);
+
+    // Euler view of local_rotation (degrees), kept as last set so that
+    // GetRotation round trips; rebuilt from the quaternion when stale
+    private final Vec3 local_euler = new Vec3(0, 0, 0);
+    private boolean eulerStale = false;
+
+    // WORLD space views, copied out of the store when its world version moves on
+    private final Mat4 localMatrix = new Mat4(1);
+    private final Mat4 worldMatrix = new Mat4(1);
+    private final Quat worldRotation = new Quat();
+    private int worldMatrixVersion = -1;
+    private int worldRotationVersion = -1;
+
+    // inverse of worldMatrix, rebuilt on first use after the world changes
+    private final Mat4 inverseWorldMatrix = new Mat4(1);
+    private int inverseVersion = -1;
+
+    // Derived world vectors, each rebuilt on first use after the world changes
+    private final Vec3 worldPosition = new Vec3();
+    private final Vec3 worldForward = new Vec3();
+    private final Vec3 worldRight = new Vec3();
+    private final Vec3 worldUp = new Vec3();
+    private final Vec3 worldScale = new Vec3();
+    private int worldPositionVersion = -1;
+    private int worldForwardVersion = -1;
+    private int worldRightVersion = -1;
+    private int worldUpVersion = -1;
+    private int worldScaleVersion = -1;
 
     public Transform(Vec3 lp, Vec3 lr, Vec3 ls){
-        local_position = lp;
-        local_rotation = lr;
-        local_scale = ls;
+        this(TransformStore.getDefault());
+        store.setPosition(slot(), lp.x, lp.y, lp.z);
+        store.setScale(slot(), ls.x, ls.y, ls.z);
+        setEuler(lr.x, lr.y, lr.z);
     }
 
     public Transform(){
-        local_position = Vec3.zero();
-        local_rotation = Vec3.zero();
-        local_scale = Vec3.one();
+        this(TransformStore.getDefault());
     }
 
-     // Get the local TRS matrix
+    public Transform(TransformStore store){
+        this.store = store;
+        this.index = store.allocate();
+    }
+
+    public TransformStore getStore() {
+        return store;
+    }
+
+    public int getStoreIndex() {
+        return slot();
+    }
+
+    // Frees this transform's store slot; any later use throws, since the slot may belong to another transform by then
+    public void dispose() {
+        if (index >= 0) {
+            store.release(slot());
+            index = -1;
+        }
+    }
+
+    public boolean isDisposed() {
+        return index < 0;
+    }
+
+    private int slot() {
+        if (index < 0) {
+            String name = (gameObject != null) ? gameObject.getName() : null;
+            throw new IllegalStateException("Transform of '" + name + "' was used after its GameObject was destroyed");
+        }
+        return index;
+    }
+
+     // Get the local TRS matrix (rebuilt in place, do not hold on to it)
     public Mat4 getLocalMatrix() {
-        Mat4 S = Mat4Transform.scale(local_scale.x, local_scale.y, local_scale.z);
-        Mat4 R = Mat4.multiply(
-            Mat4Transform.rotateAroundZ(local_rotation.z),
-            Mat4.multiply(
-                Mat4Transform.rotateAroundY(local_rotation.y),
-                Mat4Transform.rotateAroundX(local_rotation.x)
-            )
-        );
-        Mat4 T = Mat4Transform.translate(local_position);
-        return Mat4.multiply(T, Mat4.multiply(R, S));
-    }
-
-    // Get the world matrix (with caching and dirty flagging)
+        return localMatrix.setTRS(GetPosition(), GetLocalRotation(), GetScale());
+    }
+
+    // Get the world matrix (with caching and dirty flagging); do not modify
     public Mat4 getWorldMatrix() {
-        if (isDirty) {
-            updateWorldMatrix();
+        store.resolve(slot());
+        int version = store.getWorldVersion(slot());
+        if (version != worldMatrixVersion) {
+            store.getWorld(slot(), worldMatrix);
+            worldMatrixVersion = version;
         }
         return worldMatrix;
     }
 
-    private void updateWorldMatrix() {
-        Mat4 localMatrix = getLocalMatrix();
-    
-        GameObject parent = getGameObject().getParent();
-        if (parent == null) {
-            // No parent, local = world
-            worldMatrix = localMatrix;
-        } else {
-            // World = Parent's World × Local
-            Mat4 parentWorld = parent.getTransform().getWorldMatrix();
-            worldMatrix = Mat4.multiply(parentWorld, localMatrix);
+    // Changes whenever the world matrix is rebuilt; compare against a stored
+    // value to tell whether anything derived from it is out of date
+    public int getWorldVersion() {
+        store.resolve(slot());
+        return store.getWorldVersion(slot());
+    }
+
+    // World-to-local matrix (cached, do not modify)
+    public Mat4 getInverseWorldMatrix() {
+        Mat4 world = getWorldMatrix();
+        if (inverseVersion != worldMatrixVersion) {
+            Mat4Transform.inverseAffine(world, inverseWorldMatrix);
+            inverseVersion = worldMatrixVersion;
+        }
+        return inverseWorldMatrix;
+    }
+
+    // Converts a world space point into this transform's local space; out may be worldPoint
+    public Vec3 InverseTransformPoint(Vec3 worldPoint, Vec3 out) {
+        return Mat4Transform.multiplyPoint(getInverseWorldMatrix(), worldPoint, out);
+    }
+
+    // Converts a world space direction into this transform's local space; out may be worldDir
+    public Vec3 InverseTransformDirection(Vec3 worldDir, Vec3 out) {
+        return Mat4Transform.multiplyDirection(getInverseWorldMatrix(), worldDir, out);
+    }
+
+    // Bakes this transform's world matrix; see TransformStore.freeze
+    public void bakeStatic() {
+        store.freeze(slot());
+    }
+
+    public boolean isStatic() {
+        return store.isFrozen(slot());
+    }
+
+    // Points this transform's parent slot at its GameObject's parent; call after reparenting
+    public void onParentChanged() {
+        GameObject parent = gameObject.getParent();
+        int parentIndex = -1;
+        if (parent != null) {
+            Transform parentTransform = parent.getTransform();
+            if (parentTransform.store != store) {
+                throw new IllegalStateException("Transform of '" + gameObject.getName()
+                    + "' cannot be parented to '" + parent.getName() + "': they use different TransformStores");
+            }
+            parentIndex = parentTransform.slot();
         }
-        
-        isDirty = false;
+        store.setParent(slot(), parentIndex);
+        markDirty();
     }
 
     public void SetLocalPosition(float x, float y, float z){
-        local_position.x = x;
-        local_position.y = y;
-        local_position.z = z;
+        store.setPosition(slot(), x, y, z);
         markDirty();
     }
 
     public void SetLocalRotation(float x, float y, float z){
-        local_rotation.x = x;
-        local_rotation.y = y;
-        local_rotation.z = z;
+        setEuler(x, y, z);
         markDirty();
     }
 
+    public void SetLocalRotation(Quat q){
+        local_rotation.set(q);
+        local_rotation.normalize();
+        store.setRotation(slot(), local_rotation);
+        eulerStale = true;
+        markDirty();
+    }
+
+    private void setEuler(float x, float y, float z){
+        local_euler.set(x, y, z);
+        local_rotation.setFromEulerXYZ(x, y, z);
+        store.setRotation(slot(), local_rotation);
+        eulerStale = false;
+    }
+
     public void SetLocalScale(float x, float y, float z){
-        local_scale.x = x;
-        local_scale.y = y;
-        local_scale.z = z;
+        store.setScale(slot(), x, y, z);
         markDirty();
     }
 
@@ -103,144 +205,217 @@ public class Transform extends Component{
         return debugAxesEnabled;
     }
 
+    // Local position. Treat as read-only: write through SetLocalPosition.
     public Vec3 GetPosition(){
-        return local_position;
+        return store.getPosition(slot(), local_position);
     }
 
+    // Local Euler angles in degrees (x = pitch, y = yaw, z = roll).
+    // Treat as read-only: write through SetLocalRotation.
     public Vec3 GetRotation(){
-        return local_rotation;
+        if (eulerStale) {
+            GetLocalRotation().toEulerXYZ(local_euler);
+            eulerStale = false;
+        }
+        return local_euler;
+    }
+
+    // Local rotation quaternion. Treat as read-only.
+    public Quat GetLocalRotation(){
+        return store.getRotation(slot(), local_rotation);
+    }
+
+    // World rotation, ignoring any shear from non-uniformly scaled parents. Treat as read-only.
+    public Quat GetWorldRotation(){
+        store.resolve(slot());
+        int version = store.getWorldVersion(slot());
+        if (version != worldRotationVersion) {
+            store.getWorldRotation(slot(), worldRotation);
+            worldRotationVersion = version;
+        }
+        return worldRotation;
     }
 
+    // Local scale. Treat as read-only: write through SetLocalScale.
     public Vec3 GetScale(){
-        return local_scale;
+        return store.getScale(slot(), local_scale);
     }
     
     public Vec3 GetWorldPosition(){
+        return new Vec3(GetWorldPositionReadOnly());
+    }
+
+    // Allocation-free variants: write into out and return it
+    public Vec3 GetWorldPosition(Vec3 out){
+        return out.set(GetWorldPositionReadOnly());
+    }
+
+    // Read-only variants: return the cached vector itself, valid until the
+    // transform next moves. Callers must not modify or hold on to it.
+    public Vec3 GetWorldPositionReadOnly(){
         Mat4 world = getWorldMatrix();
-        return new Vec3(world.get(0,3), world.get(1,3), world.get(2,3));
+        if (worldPositionVersion != worldMatrixVersion) {
+            worldPosition.set(world.get(0,3), world.get(1,3), world.get(2,3));
+            worldPositionVersion = worldMatrixVersion;
+        }
+        return worldPosition;
     }
 
     // Direction vectors in WORLD space
     // Forward is considered to be -Z in local space
     public Vec3 GetForward() {
-        Mat4 world = getWorldMatrix();
-
-        // Forward column (Z axis)
-        Vec3 f = new Vec3(
-            world.get(0, 2),
-            world.get(1, 2),
-            world.get(2, 2)
-        );
+        return new Vec3(GetForwardReadOnly());
+    }
 
-        // Forward is -Z in coordinate system:
-        f = Vec3.multiply(f, -1f);
+    public Vec3 GetForward(Vec3 out) {
+        return out.set(GetForwardReadOnly());
+    }
 
-        return Vec3.normalize(f);
+    public Vec3 GetForwardReadOnly() {
+        Mat4 world = getWorldMatrix();
+        if (worldForwardVersion != worldMatrixVersion) {
+            // Forward column (Z axis), negated as forward is -Z in coordinate system
+            worldForward.set(
+                -world.get(0, 2),
+                -world.get(1, 2),
+                -world.get(2, 2)
+            );
+            Vec3.normalizeInto(worldForward, worldForward);
+            worldForwardVersion = worldMatrixVersion;
+        }
+        return worldForward;
     }
 
     public Vec3 GetRight() {
-        Mat4 world = getWorldMatrix();
+        return new Vec3(GetRightReadOnly());
+    }
 
-        Vec3 r = new Vec3(
-            world.get(0, 0),
-            world.get(1, 0),
-            world.get(2, 0)
-        );
+    public Vec3 GetRight(Vec3 out) {
+        return out.set(GetRightReadOnly());
+    }
 
-        return Vec3.normalize(r);
+    public Vec3 GetRightReadOnly() {
+        Mat4 world = getWorldMatrix();
+        if (worldRightVersion != worldMatrixVersion) {
+            worldRight.set(
+                world.get(0, 0),
+                world.get(1, 0),
+                world.get(2, 0)
+            );
+            Vec3.normalizeInto(worldRight, worldRight);
+            worldRightVersion = worldMatrixVersion;
+        }
+        return worldRight;
     }
 
     public Vec3 GetUp() {
-        Mat4 world = getWorldMatrix();
+        return new Vec3(GetUpReadOnly());
+    }
 
-        Vec3 u = new Vec3(
-            world.get(0, 1),
-            world.get(1, 1),
-            world.get(2, 1)
-        );
+    public Vec3 GetUp(Vec3 out) {
+        return out.set(GetUpReadOnly());
+    }
 
-        return Vec3.normalize(u);
+    public Vec3 GetUpReadOnly() {
+        Mat4 world = getWorldMatrix();
+        if (worldUpVersion != worldMatrixVersion) {
+            worldUp.set(
+                world.get(0, 1),
+                world.get(1, 1),
+                world.get(2, 1)
+            );
+            Vec3.normalizeInto(worldUp, worldUp);
+            worldUpVersion = worldMatrixVersion;
+        }
+        return worldUp;
     }
 
     public void Translate(Vec3 delta) {
-        local_position = Vec3.add(local_position, delta);
+        store.translate(slot(), delta.x, delta.y, delta.z);
         markDirty();
     }
 
     // Rotate local Euler angles (degrees) around local axes and mark dirty
     public void RotateLocalX(float degrees) {
-        local_rotation.x += degrees;
-        markDirty();
+        Vec3 e = GetRotation();
+        SetLocalRotation(e.x + degrees, e.y, e.z);
     }
 
     public void RotateLocalY(float degrees) {
-        local_rotation.y += degrees;
-        markDirty();
+        Vec3 e = GetRotation();
+        SetLocalRotation(e.x, e.y + degrees, e.z);
     }
 
     public void RotateLocalZ(float degrees) {
-        local_rotation.z += degrees;
-        markDirty();
+        Vec3 e = GetRotation();
+        SetLocalRotation(e.x, e.y, e.z + degrees);
     }
 
     public void LookAt(Vec3 worldTarget, Vec3 worldUp) {
-        // 1. Get world position of this object
-        Vec3 worldPos = GetWorldPosition();
-
-        // 2. Compute desired forward direction (world space)
-        Vec3 worldDir = Vec3.subtract(worldTarget, worldPos);
-        if (worldDir.length() < 0.0001f) return;   // Prevent NaN
-        worldDir.normalize();
-
-        // 3. Convert world direction into local space
-        Mat4 parentWorld =
-                (getGameObject().getParent() != null)
-                ? getGameObject().getParent().getTransform().getWorldMatrix()
-                : Mat4.identity();
-
-        Mat4 parentInv = Mat4Transform.inverse(parentWorld);
-
-        // Direction -> vec4 with w = 0
-        Vec3 localDir = Mat4Transform.multiplyDirection(parentInv, worldDir);
-        localDir.normalize();
-
-        // 4. engine uses forward = -Z, so invert
-        Vec3 f = localDir;  // f = desired local forward
-
-        // 5. Compute yaw and pitch for rotation order (Rz * Ry * Rx)
-        // Yaw 
-        float yaw = (float)Math.toDegrees(Math.atan2(f.x, -f.z));
-
-        // Pitch 
-        // angle between forward and XZ plane
-        float pitch = (float)Math.toDegrees(
-                Math.atan2(f.y, Math.sqrt(f.x * f.x + f.z * f.z))
-        );
-
-        float roll = 0f;
-
-        // 6. Apply result
-        SetLocalRotation(pitch, yaw, roll);
+        Vec3Pool pool = Vec3Pool.get();
+        int mark = pool.mark();
+        try {
+            // 1. Get world position of this object
+            Vec3 worldPos = GetWorldPosition(pool.take());
+
+            // 2. Compute desired forward direction (world space)
+            Vec3 worldDir = Vec3.subtractInto(worldTarget, worldPos, pool.take());
+            if (worldDir.length() < 0.0001f) return;   // Prevent NaN
+            worldDir.normalize();
+
+            // 3. Convert world direction into local space by undoing the
+            //    parent's world rotation (no matrix inverse needed)
+            Vec3 localDir = pool.take();
+            GameObject parent = getGameObject().getParent();
+            if (parent != null) {
+                Quat.rotateInverse(parent.getTransform().GetWorldRotation(), worldDir, localDir);
+            } else {
+                localDir.set(worldDir);
+            }
+
+            // 4. engine uses forward = -Z; build the roll-free yaw/pitch
+            //    rotation that points local forward along localDir
+            local_rotation.setLookDirection(localDir);
+            store.setRotation(slot(), local_rotation);
+            eulerStale = true;
+            markDirty();
+        } finally {
+            pool.release(mark);
+        }
     }
 
     public Vec3 getWorldScale() {
-        if (isDirty) updateWorldMatrix();
+        return new Vec3(getWorldScaleReadOnly());
+    }
+
+    public Vec3 getWorldScale(Vec3 out) {
+        return out.set(getWorldScaleReadOnly());
+    }
 
-        // Extract scale from worldMatrix columns
-        float sx = new Vec3(worldMatrix.get(0,0), worldMatrix.get(1,0), worldMatrix.get(2,0)).magnitude();
-        float sy = new Vec3(worldMatrix.get(0,1), worldMatrix.get(1,1), worldMatrix.get(2,1)).magnitude();
-        float sz = new Vec3(worldMatrix.get(0,2), worldMatrix.get(1,2), worldMatrix.get(2,2)).magnitude();
+    public Vec3 getWorldScaleReadOnly() {
+        Mat4 world = getWorldMatrix();
+        if (worldScaleVersion != worldMatrixVersion) {
+            // Extract scale from worldMatrix columns
+            worldScale.set(
+                columnLength(world, 0),
+                columnLength(world, 1),
+                columnLength(world, 2)
+            );
+            worldScaleVersion = worldMatrixVersion;
+        }
+        return worldScale;
+    }
 
-        return new Vec3(sx, sy, sz);
+    private static float columnLength(Mat4 m, int c) {
+        float x = m.get(0, c), y = m.get(1, c), z = m.get(2, c);
+        return (float)Math.sqrt(x*x + y*y + z*z);
     }
 
 
-    // Mark this transform and all children as dirty
+    // Mark this transform, and through it all children, as dirty
     public void markDirty() {
-        isDirty = true;
-        // Recursively mark all children dirty
-        for (GameObject child : gameObject.getChildren()) {
-            child.getTransform().markDirty();
-        }
+        assert !store.isFrozen(slot()) : "Static GameObject '" + gameObject.getName()
+            + "' was moved or reparented after its transform was baked";
+        store.markDirty(slot());
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,485 @@
+package engine.components;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import engine.gmaths.Mat4;
+import engine.gmaths.Mat4Batch;
+import engine.gmaths.Quat;
+import engine.gmaths.Vec3;
+
+/**
+ * Structure-of-arrays storage for Transforms.
+ *
+ * Each Transform is a handle to one slot. A slot's local position, rotation
+ * (quaternion), scale, world matrix, world rotation and parent slot live in
+ * flat primitive arrays, so updating many transforms walks memory linearly
+ * instead of chasing Vec3 and Mat4 objects around the heap.
+ *
+ * World matrices use Mat4's column-major layout, 16 floats per slot, so the
+ * world array can be handed straight to Mat4Batch or uploaded to GL.
+ *
+ * Released slots go on a free list and are handed out again by allocate;
+ * until then the hierarchy order leaves them out, so update passes never
+ * visit them.
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class TransformStore {
+
+    private static final TransformStore DEFAULT = new TransformStore(256);
+
+    private int count = 0;          // slots ever handed out, live or released
+    private int capacity;
+    private int[] freeList;         // released slots, reused first by allocate
+    private int freeCount = 0;
+
+    // LOCAL space
+    private float[] position;       // x, y, z per slot
+    private float[] rotation;       // x, y, z, w per slot
+    private float[] scale;          // x, y, z per slot
+
+    // WORLD space (cached, recalculated when dirty)
+    private float[] world;          // 16 per slot, column-major
+    private float[] worldRotation;  // x, y, z, w per slot
+    private int[] worldVersion;     // bumped every time the world matrix is rebuilt
+    private int[] parentVersion;    // parent's worldVersion when this slot was last rebuilt
+    private int[] parent;           // parent slot, or -1 for a root
+    private boolean[] dirty;        // local TRS or parent changed since the last rebuild
+    private boolean[] frozen;       // baked static slot, never rebuilt again
+    private boolean[] frozenTree;   // frozen along with its whole subtree; the update pass skips it
+    private boolean[] released;     // on the free list; belongs to no Transform
+
+    // Set by a full update pass, cleared by any change; lets reads skip the ancestor check
+    private boolean allClean = false;
+
+    // Flattened hierarchy, rebuilt when it changes: slots in depth-first
+    // pre-order (each subtree is the contiguous run order[orderIndex[i]] ..
+    // + subtreeSize[i]) plus each slot's children and the list of roots
+    private int[] order;
+    private int orderCount = 0;     // live slots in order
+    private int[] orderIndex;
+    private int[] subtreeSize;
+    private int[] childStart;       // children of i are childList[childStart[i] .. childStart[i+1])
+    private int[] childList;
+    private int[] roots;
+    private int rootCount = 0;
+    private int[] scratchInts;
+    private boolean orderStale = true;
+
+    private final float[] localScratch = new float[16];
+
+    // The store used by Transforms created without one
+    public static TransformStore getDefault() {
+        return DEFAULT;
+    }
+
+    public TransformStore(int initialCapacity) {
+        capacity = Math.max(1, initialCapacity);
+        position = new float[capacity * 3];
+        rotation = new float[capacity * 4];
+        scale = new float[capacity * 3];
+        world = new float[capacity * 16];
+        worldRotation = new float[capacity * 4];
+        worldVersion = new int[capacity];
+        parentVersion = new int[capacity];
+        parent = new int[capacity];
+        dirty = new boolean[capacity];
+        frozen = new boolean[capacity];
+        frozenTree = new boolean[capacity];
+        released = new boolean[capacity];
+        freeList = new int[capacity];
+        order = new int[capacity];
+        orderIndex = new int[capacity];
+        subtreeSize = new int[capacity];
+        childStart = new int[capacity + 1];
+        childList = new int[capacity];
+        roots = new int[capacity];
+        scratchInts = new int[capacity + 1];
+    }
+
+    // Live slots; released ones are not counted
+    public int size() {
+        return count - freeCount;
+    }
+
+    // Adds an identity root slot, reusing a released one if there is one, and returns its index
+    int allocate() {
+        int i;
+        if (freeCount > 0) {
+            i = freeList[--freeCount];
+            released[i] = false;
+            frozen[i] = false;
+        } else {
+            if (count == capacity) {
+                grow(capacity * 2);
+            }
+            i = count++;
+        }
+        position[i*3] = 0; position[i*3 + 1] = 0; position[i*3 + 2] = 0;
+        rotation[i*4] = 0; rotation[i*4 + 1] = 0; rotation[i*4 + 2] = 0; rotation[i*4 + 3] = 1;
+        scale[i*3] = 1; scale[i*3 + 1] = 1; scale[i*3 + 2] = 1;
+        parent[i] = -1;
+        parentVersion[i] = 0;
+        dirty[i] = true;
+        allClean = false;
+        orderStale = true;
+        return i;
+    }
+
+    /**
+     * Returns slot i to the free list. Its children must be released with
+     * it or reparented first, and the Transform that owned it must not be
+     * used again, since the slot can be handed to a new one.
+     */
+    void release(int i) {
+        if (released[i]) {
+            return;
+        }
+        released[i] = true;
+        frozen[i] = false;
+        parent[i] = -1;
+        freeList[freeCount++] = i;
+        orderStale = true;
+    }
+
+    public boolean isReleased(int i) {
+        return released[i];
+    }
+
+    private void grow(int newCapacity) {
+        position = Arrays.copyOf(position, newCapacity * 3);
+        rotation = Arrays.copyOf(rotation, newCapacity * 4);
+        scale = Arrays.copyOf(scale, newCapacity * 3);
+        world = Arrays.copyOf(world, newCapacity * 16);
+        worldRotation = Arrays.copyOf(worldRotation, newCapacity * 4);
+        worldVersion = Arrays.copyOf(worldVersion, newCapacity);
+        parentVersion = Arrays.copyOf(parentVersion, newCapacity);
+        parent = Arrays.copyOf(parent, newCapacity);
+        dirty = Arrays.copyOf(dirty, newCapacity);
+        frozen = Arrays.copyOf(frozen, newCapacity);
+        frozenTree = Arrays.copyOf(frozenTree, newCapacity);
+        released = Arrays.copyOf(released, newCapacity);
+        freeList = Arrays.copyOf(freeList, newCapacity);
+        order = Arrays.copyOf(order, newCapacity);
+        orderIndex = Arrays.copyOf(orderIndex, newCapacity);
+        subtreeSize = Arrays.copyOf(subtreeSize, newCapacity);
+        childStart = Arrays.copyOf(childStart, newCapacity + 1);
+        childList = Arrays.copyOf(childList, newCapacity);
+        roots = Arrays.copyOf(roots, newCapacity);
+        scratchInts = Arrays.copyOf(scratchInts, newCapacity + 1);
+        capacity = newCapacity;
+    }
+
+    // LOCAL accessors (callers are responsible for calling markDirty)
+
+    public void setPosition(int i, float x, float y, float z) {
+        position[i*3] = x;
+        position[i*3 + 1] = y;
+        position[i*3 + 2] = z;
+    }
+
+    public void translate(int i, float dx, float dy, float dz) {
+        position[i*3] += dx;
+        position[i*3 + 1] += dy;
+        position[i*3 + 2] += dz;
+    }
+
+    public Vec3 getPosition(int i, Vec3 out) {
+        return out.set(position[i*3], position[i*3 + 1], position[i*3 + 2]);
+    }
+
+    public void setRotation(int i, Quat q) {
+        rotation[i*4] = q.x;
+        rotation[i*4 + 1] = q.y;
+        rotation[i*4 + 2] = q.z;
+        rotation[i*4 + 3] = q.w;
+    }
+
+    public Quat getRotation(int i, Quat out) {
+        return out.set(rotation[i*4], rotation[i*4 + 1], rotation[i*4 + 2], rotation[i*4 + 3]);
+    }
+
+    public void setScale(int i, float x, float y, float z) {
+        scale[i*3] = x;
+        scale[i*3 + 1] = y;
+        scale[i*3 + 2] = z;
+    }
+
+    public Vec3 getScale(int i, Vec3 out) {
+        return out.set(scale[i*3], scale[i*3 + 1], scale[i*3 + 2]);
+    }
+
+    public void setParent(int i, int parentIndex) {
+        if (parent[i] != parentIndex) {
+            parent[i] = parentIndex;
+            dirty[i] = true;
+            allClean = false;
+            orderStale = true;
+        }
+    }
+
+    public int getParent(int i) {
+        return parent[i];
+    }
+
+    // HIERARCHY
+
+    /**
+     * Flags slot i as changed. Descendants are not visited: a slot is also
+     * rebuilt whenever its parent's world version has moved on since its own
+     * last rebuild, so one flag invalidates the whole subtree.
+     */
+    public void markDirty(int i) {
+        dirty[i] = true;
+        allClean = false;
+    }
+
+    public int getWorldVersion(int i) {
+        return worldVersion[i];
+    }
+
+    /**
+     * Bakes slot i: its world matrix is brought up to date once and never
+     * rebuilt again, and update passes skip it. Only freeze a slot whose
+     * ancestors are all frozen, since later parent changes would be missed.
+     * Changing a frozen slot is a bug; Transform reports it when assertions
+     * are enabled, otherwise the change never reaches the world matrix.
+     */
+    public void freeze(int i) {
+        resolve(i);
+        frozen[i] = true;
+        orderStale = true;
+    }
+
+    public boolean isFrozen(int i) {
+        return frozen[i];
+    }
+
+    // Brings slot i up to date, rebuilding any stale ancestors first
+    public void resolve(int i) {
+        if (allClean || frozen[i]) {
+            return;
+        }
+        int p = parent[i];
+        if (p >= 0) {
+            resolve(p);
+        }
+        if (isStale(i, p)) {
+            computeWorld(i, p, localScratch);
+        }
+    }
+
+    private boolean isStale(int i, int p) {
+        return dirty[i] || (p >= 0 && parentVersion[i] != worldVersion[p]);
+    }
+
+    /**
+     * Rebuilds every stale world matrix in one linear pass over the slots in
+     * parent-before-child order, so each parent is already up to date when
+     * its children are reached. Untouched subtrees are skipped.
+     */
+    public void updateWorldMatrices() {
+        if (allClean) {
+            return;
+        }
+        if (orderStale) {
+            rebuildOrder();
+        }
+        updateRange(0, orderCount, localScratch);
+        allClean = true;
+    }
+
+    /**
+     * As updateWorldMatrices, but independent subtrees are updated as
+     * ForkJoin tasks on the given pool. Root subtrees are split between
+     * tasks, and a subtree too large for one task has its root updated
+     * first and its child list split in turn. Stores with fewer than
+     * threshold slots, and pieces of work smaller than it, stay on the
+     * calling thread.
+     */
+    public void updateWorldMatricesParallel(ForkJoinPool pool, int threshold) {
+        if (allClean) {
+            return;
+        }
+        if (size() < threshold) {
+            updateWorldMatrices();
+            return;
+        }
+        if (orderStale) {
+            rebuildOrder();
+        }
+        pool.invoke(new SubtreeTask(roots, 0, rootCount, Math.max(1, threshold)));
+        allClean = true;
+    }
+
+    // Updates a run of the pre-order; every slot's parent is either inside the run or already current
+    private void updateRange(int from, int to, float[] scratch) {
+        for (int k = from; k < to; k++) {
+            int i = order[k];
+            if (frozenTree[i]) {
+                k += subtreeSize[i] - 1;  // nothing below can change
+                continue;
+            }
+            if (frozen[i]) {
+                continue;
+            }
+            int p = parent[i];
+            if (isStale(i, p)) {
+                computeWorld(i, p, scratch);
+            }
+        }
+    }
+
+    // Updates the subtrees rooted at list[from .. to), whose parents are already current
+    private final class SubtreeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] list;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        SubtreeTask(int[] list, int from, int to, int threshold) {
+            this.list = list;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int size = 0;
+            for (int k = from; k < to; k++) {
+                size += subtreeSize[list[k]];
+            }
+
+            if (size <= threshold) {
+                float[] scratch = new float[16];
+                for (int k = from; k < to; k++) {
+                    int start = orderIndex[list[k]];
+                    updateRange(start, start + subtreeSize[list[k]], scratch);
+                }
+            } else if (to - from > 1) {
+                // Split the siblings where about half of the slots fall on each side
+                int mid = from + 1;
+                int left = subtreeSize[list[from]];
+                while (mid < to - 1 && left + subtreeSize[list[mid]] <= size / 2) {
+                    left += subtreeSize[list[mid]];
+                    mid++;
+                }
+                invokeAll(new SubtreeTask(list, from, mid, threshold),
+                          new SubtreeTask(list, mid, to, threshold));
+            } else {
+                // One large subtree: update its root, then split its children
+                int i = list[from];
+                if (frozenTree[i]) {
+                    return;
+                }
+                int p = parent[i];
+                if (!frozen[i] && isStale(i, p)) {
+                    computeWorld(i, p, new float[16]);
+                }
+                new SubtreeTask(childList, childStart[i], childStart[i + 1], threshold).compute();
+            }
+        }
+    }
+
+    // Builds the child lists, roots, depth-first pre-order and subtree sizes from parent[]; released slots are left out
+    private void rebuildOrder() {
+        // children, grouped per parent in slot order
+        Arrays.fill(childStart, 0, count + 1, 0);
+        rootCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (released[i]) {
+                continue;
+            }
+            if (parent[i] < 0) {
+                roots[rootCount++] = i;
+            } else {
+                childStart[parent[i] + 1]++;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            childStart[i + 1] += childStart[i];
+        }
+        int[] cursor = scratchInts;
+        System.arraycopy(childStart, 0, cursor, 0, count + 1);
+        for (int i = 0; i < count; i++) {
+            if (!released[i] && parent[i] >= 0) {
+                childList[cursor[parent[i]]++] = i;
+            }
+        }
+
+        // depth-first pre-order, using cursor as an explicit stack
+        int n = 0;
+        for (int r = 0; r < rootCount; r++) {
+            int top = 0;
+            cursor[top++] = roots[r];
+            while (top > 0) {
+                int i = cursor[--top];
+                orderIndex[i] = n;
+                order[n++] = i;
+                for (int c = childStart[i + 1] - 1; c >= childStart[i]; c--) {
+                    cursor[top++] = childList[c];
+                }
+            }
+        }
+
+        // subtree sizes and fully frozen subtrees, children before parents
+        Arrays.fill(subtreeSize, 0, count, 1);
+        System.arraycopy(frozen, 0, frozenTree, 0, count);
+        for (int k = n - 1; k >= 0; k--) {
+            int i = order[k];
+            if (parent[i] >= 0) {
+                subtreeSize[parent[i]] += subtreeSize[i];
+                frozenTree[parent[i]] &= frozenTree[i];
+            }
+        }
+        orderCount = n;
+        orderStale = false;
+    }
+
+    // The parent, if any, must already be up to date
+    private void computeWorld(int i, int p, float[] scratch) {
+        int o = i*16;
+        if (p < 0) {
+            // No parent, local = world
+            writeLocal(i, world, o);
+            System.arraycopy(rotation, i*4, worldRotation, i*4, 4);
+        } else {
+            // World = Parent's World × Local
+            writeLocal(i, scratch, 0);
+            Mat4Batch.multiply(world, p*16, scratch, 0, world, o);
+            Quat.multiply(worldRotation, p*4, rotation, i*4, worldRotation, i*4);
+            parentVersion[i] = worldVersion[p];
+        }
+        dirty[i] = false;
+        worldVersion[i]++;
+    }
+
+    private void writeLocal(int i, float[] out, int o) {
+        Mat4Batch.setTRS(out, o,
+            position[i*3], position[i*3 + 1], position[i*3 + 2],
+            rotation[i*4], rotation[i*4 + 1], rotation[i*4 + 2], rotation[i*4 + 3],
+            scale[i*3], scale[i*3 + 1], scale[i*3 + 2]);
+    }
+
+    // WORLD accessors (valid once the slot has been resolved)
+
+    public Mat4 getWorld(int i, Mat4 out) {
+        return out.setFrom(world, i*16);
+    }
+
+    public Quat getWorldRotation(int i, Quat out) {
+        return out.set(worldRotation[i*4], worldRotation[i*4 + 1], worldRotation[i*4 + 2], worldRotation[i*4 + 3]);
+    }
+
+    // Raw world matrices, 16 floats per slot; read-only, and replaced if the store grows
+    public float[] getWorldArray() {
+        return world;
+    }
+}
@@ -9,6 +9,7 @@ import engine.scene.GameObject;
 public abstract class Component {
     protected GameObject gameObject;
     private String id; // required for components that will be referenced
+    private boolean enabled = true; // disabled components are skipped by the Update and render phases
     public void setGameObject(GameObject gameObject){
         this.gameObject = gameObject;
     }
@@ -24,4 +25,12 @@ public abstract class Component {
     public void setId(String id) {
         this.id = id;
     }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
 }
\ No newline at end of file
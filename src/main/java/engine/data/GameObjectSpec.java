@@ -9,6 +9,7 @@ jbala1@sheffield.ac.uk
 public class GameObjectSpec {
     public String name;
     public String id;
+    public boolean isStatic; // optional, the object and its children never move (children inherit it)
     public List<ComponentSpec> components; // strong typed ComponentSpecs
     public List<GameObjectSpec> children; // child GameObjects
 }
@@ -15,4 +15,5 @@ public class MaterialSpec {
   public String id;
   public Boolean doubleSided;
   public Boolean transparent;
+  public Boolean instancing;   // false opts out of instancing and of sharing one Material between renderers
 }
\ No newline at end of file
@@ -7,6 +7,9 @@ jbala1@sheffield.ac.uk
 public class SceneSpec {
     public String name;
     public String skybox; // optional path to skybox material
+    public boolean parallelTransforms; // optional, update transforms on the ForkJoin common pool
+    public Integer parallelTransformThreshold; // optional, fewer transforms than this stay single-threaded
     public List<GameObjectSpec> gameObjects;
+    public List<GameObjectSpec> entities; // optional, instantiated into the scene's EntityWorld instead of as GameObjects
 }
 
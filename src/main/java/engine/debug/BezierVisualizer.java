@@ -11,6 +11,7 @@ import engine.gmaths.Mat4;
 import engine.gmaths.Vec3;
 import engine.math.BezierCurve;
 import engine.math.BezierPath;
+import engine.rendering.GLStateCache;
 import engine.rendering.Shader;
 /* I declare that this code is my own work with the help of StackOverflow and Claude*/
 /* Author Jakub Bala 
@@ -21,6 +22,7 @@ public class BezierVisualizer {
     private int[] vao = new int[1];
     private int[] vbo = new int[1];
     private int vertexCount = 0;
+    private final Mat4 mvp = new Mat4();
     
     private int samplesPerCurve = 50;
     private Vec3 lineColor = new Vec3(1.0f, 1.0f, 1.0f); // White by default
@@ -102,7 +104,7 @@ public class BezierVisualizer {
             vertexArray[i] = vertices.get(i);
         }
         
-        gl.glBindVertexArray(vao[0]);
+        GLStateCache.bindVertexArray(gl, vao[0]);
         gl.glBindBuffer(GL3.GL_ARRAY_BUFFER, vbo[0]);
         
         FloatBuffer fb = Buffers.newDirectFloatBuffer(vertexArray);
@@ -118,7 +120,7 @@ public class BezierVisualizer {
         gl.glVertexAttribPointer(1, 3, GL3.GL_FLOAT, false, stride, 3 * Float.BYTES);
         gl.glEnableVertexAttribArray(1);
         
-        gl.glBindVertexArray(0);
+        GLStateCache.bindVertexArray(gl, 0);
     }
     
     /**
@@ -132,19 +134,20 @@ public class BezierVisualizer {
         
         shader.use(gl);
         
-        Mat4 mvp = Mat4.multiply(projection, view);
-        shader.setFloatArray(gl, "mvpMatrix", mvp.toFloatArrayForGLSL());
+        Mat4.multiplyInto(projection, view, mvp);
+        shader.setMat4(gl, "mvpMatrix", mvp);
         
-        gl.glBindVertexArray(vao[0]);
+        GLStateCache.bindVertexArray(gl, vao[0]);
         gl.glDrawArrays(GL3.GL_LINES, 0, vertexCount);
-        gl.glBindVertexArray(0);
+        GLStateCache.bindVertexArray(gl, 0);
         
         gl.glLineWidth(1.0f);
-        gl.glEnable(GL3.GL_DEPTH_TEST);
+        GLStateCache.setEnabled(gl, GL3.GL_DEPTH_TEST, true);
     }
     
     public void dispose(GL3 gl) {
         gl.glDeleteBuffers(1, vbo, 0);
         gl.glDeleteVertexArrays(1, vao, 0);
+        GLStateCache.vertexArrayDeleted(vao[0]);
     }
 }
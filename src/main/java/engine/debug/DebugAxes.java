@@ -2,8 +2,8 @@ package engine.debug;
 
 import com.jogamp.opengl.GL3;
 import engine.gmaths.Mat4;
-import engine.gmaths.Mat4Transform;
 import engine.gmaths.Vec3;
+import engine.rendering.GLStateCache;
 import engine.rendering.Shader;
 import java.nio.FloatBuffer;
 import com.jogamp.common.nio.Buffers;
@@ -22,6 +22,12 @@ public class DebugAxes {
     private int[] forwardVbo = new int[1];
     private Shader shader;
     private float screenSpaceSize;
+
+    // scratch state reused every call
+    private final Mat4 rotation = new Mat4();
+    private final Mat4 model = new Mat4();
+    private final Mat4 mvp = new Mat4();
+    private final Vec3 translation = new Vec3();
     
     public DebugAxes(GL3 gl, float screenSpaceSize) {
         this.screenSpaceSize = screenSpaceSize;
@@ -47,7 +53,7 @@ public class DebugAxes {
         };
         
         gl.glGenVertexArrays(1, axesVao, 0);
-        gl.glBindVertexArray(axesVao[0]);
+        GLStateCache.bindVertexArray(gl, axesVao[0]);
         
         gl.glGenBuffers(1, axesVbo, 0);
         gl.glBindBuffer(GL3.GL_ARRAY_BUFFER, axesVbo[0]);
@@ -56,7 +62,7 @@ public class DebugAxes {
         gl.glBufferData(GL3.GL_ARRAY_BUFFER, Float.BYTES * vertices.length, fb, GL3.GL_STATIC_DRAW);
         
         setupAttributes(gl);
-        gl.glBindVertexArray(0);
+        GLStateCache.bindVertexArray(gl, 0);
     }
     
     private void initForwardBuffers(GL3 gl) {
@@ -68,7 +74,7 @@ public class DebugAxes {
         };
         
         gl.glGenVertexArrays(1, forwardVao, 0);
-        gl.glBindVertexArray(forwardVao[0]);
+        GLStateCache.bindVertexArray(gl, forwardVao[0]);
         
         gl.glGenBuffers(1, forwardVbo, 0);
         gl.glBindBuffer(GL3.GL_ARRAY_BUFFER, forwardVbo[0]);
@@ -77,7 +83,7 @@ public class DebugAxes {
         gl.glBufferData(GL3.GL_ARRAY_BUFFER, Float.BYTES * vertices.length, fb, GL3.GL_STATIC_DRAW);
         
         setupAttributes(gl);
-        gl.glBindVertexArray(0);
+        GLStateCache.bindVertexArray(gl, 0);
     }
     
     private void setupAttributes(GL3 gl) {
@@ -94,56 +100,58 @@ public class DebugAxes {
     
     public void render(GL3 gl, Mat4 transformWorld, Mat4 view, Mat4 projection, Vec3 cameraPos, boolean showForward) {
         // Disable depth test so axes are always visible
-        gl.glDisable(GL3.GL_DEPTH_TEST);
+        GLStateCache.setEnabled(gl, GL3.GL_DEPTH_TEST, false);
         shader.use(gl);
 
         // Calculate distance from camera to transform origin
-        Vec3 transformPos = new Vec3(
-            transformWorld.get(0, 3),
-            transformWorld.get(1, 3),
-            transformWorld.get(2, 3)
-        );
-        float distance = Vec3.subtract(transformPos, cameraPos).magnitude();
+        float dx = transformWorld.get(0, 3) - cameraPos.x;
+        float dy = transformWorld.get(1, 3) - cameraPos.y;
+        float dz = transformWorld.get(2, 3) - cameraPos.z;
+        float distance = (float)Math.sqrt(dx*dx + dy*dy + dz*dz);
         
         // scale based on distance to maintain constant screen space size
         // adjust multiplier to change screen size
         float distanceScale = distance * screenSpaceSize * 0.1f;
         
         // Extract rotation and translation without scale
-        Mat4 rotation = Mat4.identity();
-        Vec3 translation = new Vec3();
         Mat4.extractRotationTranslation(transformWorld, rotation, translation);
         
-        // Build clean model matrix without inherited scale
-        Mat4 translationMatrix = Mat4Transform.translate(translation);
-        Mat4 scaleMatrix = Mat4Transform.scale(distanceScale, distanceScale, distanceScale);
-        Mat4 model = Mat4.multiply(translationMatrix, Mat4.multiply(rotation, scaleMatrix));
+        // Build clean model matrix without inherited scale: T * R * uniform S
+        model.set(rotation);
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                model.set(r, c, rotation.get(r, c) * distanceScale);
+            }
+        }
+        model.set(0, 3, translation.x);
+        model.set(1, 3, translation.y);
+        model.set(2, 3, translation.z);
 
         // Calculate final MVP matrix
-        Mat4 mvp = Mat4.multiply(projection, Mat4.multiply(view, model));
-        shader.setFloatArray(gl, "mvpMatrix", mvp.toFloatArrayForGLSL());
-        
-        shader.setFloatArray(gl, "mvpMatrix", mvp.toFloatArrayForGLSL());
+        Mat4.multiplyInto(view, model, mvp);
+        Mat4.multiplyInto(projection, mvp, mvp);
+        shader.setMat4(gl, "mvpMatrix", mvp);
         
         // Draw axes (3 lines = 6 vertices)
-        gl.glBindVertexArray(axesVao[0]);
+        GLStateCache.bindVertexArray(gl, axesVao[0]);
         gl.glDrawArrays(GL3.GL_LINES, 0, 6);
         
         // Draw forward line (1 line = 2 vertices)
         if (showForward) {
-            gl.glBindVertexArray(forwardVao[0]);
+            GLStateCache.bindVertexArray(gl, forwardVao[0]);
             gl.glDrawArrays(GL3.GL_LINES, 0, 2);
         }
         
-        gl.glBindVertexArray(0);
          // Re-enable depth test for normal rendering
-        gl.glEnable(GL3.GL_DEPTH_TEST);
+        GLStateCache.setEnabled(gl, GL3.GL_DEPTH_TEST, true);
     }
     
     public void dispose(GL3 gl) {
         gl.glDeleteBuffers(1, axesVbo, 0);
         gl.glDeleteVertexArrays(1, axesVao, 0);
+        GLStateCache.vertexArrayDeleted(axesVao[0]);
         gl.glDeleteBuffers(1, forwardVbo, 0);
         gl.glDeleteVertexArrays(1, forwardVao, 0);
+        GLStateCache.vertexArrayDeleted(forwardVao[0]);
     }
 }
\ No newline at end of file
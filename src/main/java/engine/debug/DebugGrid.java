@@ -2,6 +2,7 @@ package engine.debug;
 
 import engine.gmaths.*;
 import engine.rendering.Mesh;
+import engine.rendering.GLStateCache;
 import engine.rendering.Shader;
 
 import com.jogamp.opengl.GL;
@@ -38,11 +39,11 @@ public class DebugGrid {
 
     public void render(GL3 gl, Mat4 view, Mat4 projection) {
         // Enable blending for transparency
-        gl.glEnable(GL.GL_BLEND);
-        gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+        GLStateCache.setEnabled(gl, GL.GL_BLEND, true);
+        GLStateCache.blendFunc(gl, GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
         
         // Disable depth writing so grid doesn't block objects
-        gl.glDepthMask(false);
+        GLStateCache.depthMask(gl, false);
         
         shader.use(gl);
         shader.setMat4(gl, "view", view);
@@ -50,10 +51,10 @@ public class DebugGrid {
         quad.render(gl);
         
         // Restore depth writing
-        gl.glDepthMask(true);
+        GLStateCache.depthMask(gl, true);
         
         // Disable blending
-        gl.glDisable(GL.GL_BLEND);
+        GLStateCache.setEnabled(gl, GL.GL_BLEND, false);
     }
 
     public void dispose(GL3 gl) {
@@ -0,0 +1,159 @@
+package engine.ecs;
+
+import java.util.Arrays;
+
+/**
+ * All entities with exactly the same set of component types.
+ *
+ * Each component type is one primitive column: entity row r of a type with
+ * width w occupies [r*w, r*w + w) of that column. Rows are packed; removing
+ * an entity moves the last row into the hole, so row order is not stable.
+ *
+ * Column arrays are replaced when the archetype grows, so systems should
+ * fetch them with floats/ints at the start of each update rather than keep
+ * them between frames.
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class Archetype {
+
+    private final long mask;
+    private final ComponentType[] types;
+    private final int[] slotOf = new int[ComponentType.MAX_TYPES]; // column slot per type id, -1 if absent
+    private final float[][] floatColumns;
+    private final int[][] intColumns;
+
+    private int[] entities;
+    private int count = 0;
+    private int capacity;
+
+    Archetype(long mask, int initialCapacity) {
+        this.mask = mask;
+        this.types = new ComponentType[Long.bitCount(mask)];
+        this.capacity = Math.max(initialCapacity, 1);
+        this.entities = new int[capacity];
+        Arrays.fill(slotOf, -1);
+
+        int floatSlots = 0;
+        int intSlots = 0;
+        int t = 0;
+        for (int id = 0; id < ComponentType.MAX_TYPES; id++) {
+            if ((mask & (1L << id)) == 0) continue;
+            ComponentType type = ComponentType.byId(id);
+            types[t++] = type;
+            slotOf[id] = (type.getKind() == ComponentType.Kind.FLOAT) ? floatSlots++ : intSlots++;
+        }
+        floatColumns = new float[floatSlots][];
+        intColumns = new int[intSlots][];
+        for (ComponentType type : types) {
+            if (type.getKind() == ComponentType.Kind.FLOAT) {
+                floatColumns[slotOf[type.getId()]] = new float[capacity * type.getWidth()];
+            } else {
+                intColumns[slotOf[type.getId()]] = new int[capacity * type.getWidth()];
+            }
+        }
+    }
+
+    public long getMask() { return mask; }
+    public int size() { return count; }
+
+    public boolean has(ComponentType type) {
+        return (mask & type.bit()) != 0;
+    }
+
+    public boolean matches(long required) {
+        return (mask & required) == required;
+    }
+
+    // The entity stored in row
+    public int entity(int row) {
+        return entities[row];
+    }
+
+    public float[] floats(ComponentType type) {
+        int slot = slotOf[type.getId()];
+        if (slot < 0 || type.getKind() != ComponentType.Kind.FLOAT) {
+            throw new IllegalArgumentException("Archetype has no float column " + type);
+        }
+        return floatColumns[slot];
+    }
+
+    public int[] ints(ComponentType type) {
+        int slot = slotOf[type.getId()];
+        if (slot < 0 || type.getKind() != ComponentType.Kind.INT) {
+            throw new IllegalArgumentException("Archetype has no int column " + type);
+        }
+        return intColumns[slot];
+    }
+
+    // Appends a zeroed row for entity and returns its index
+    int add(int entity) {
+        if (count == capacity) {
+            grow();
+        }
+        int row = count++;
+        entities[row] = entity;
+        for (ComponentType type : types) {
+            int w = type.getWidth();
+            if (type.getKind() == ComponentType.Kind.FLOAT) {
+                Arrays.fill(floatColumns[slotOf[type.getId()]], row * w, row * w + w, 0f);
+            } else {
+                Arrays.fill(intColumns[slotOf[type.getId()]], row * w, row * w + w, 0);
+            }
+        }
+        return row;
+    }
+
+    // Removes row by moving the last row into it; returns the entity that moved, or -1
+    int remove(int row) {
+        int last = --count;
+        if (row == last) {
+            return -1;
+        }
+        entities[row] = entities[last];
+        for (ComponentType type : types) {
+            int w = type.getWidth();
+            if (type.getKind() == ComponentType.Kind.FLOAT) {
+                float[] col = floatColumns[slotOf[type.getId()]];
+                System.arraycopy(col, last * w, col, row * w, w);
+            } else {
+                int[] col = intColumns[slotOf[type.getId()]];
+                System.arraycopy(col, last * w, col, row * w, w);
+            }
+        }
+        return entities[row];
+    }
+
+    // Copies every column both archetypes share from row into dst's dstRow
+    void copyRow(int row, Archetype dst, int dstRow) {
+        for (ComponentType type : types) {
+            if (!dst.has(type)) continue;
+            int w = type.getWidth();
+            if (type.getKind() == ComponentType.Kind.FLOAT) {
+                System.arraycopy(floats(type), row * w, dst.floats(type), dstRow * w, w);
+            } else {
+                System.arraycopy(ints(type), row * w, dst.ints(type), dstRow * w, w);
+            }
+        }
+    }
+
+    private void grow() {
+        capacity *= 2;
+        entities = Arrays.copyOf(entities, capacity);
+        for (ComponentType type : types) {
+            int slot = slotOf[type.getId()];
+            if (type.getKind() == ComponentType.Kind.FLOAT) {
+                floatColumns[slot] = Arrays.copyOf(floatColumns[slot], capacity * type.getWidth());
+            } else {
+                intColumns[slot] = Arrays.copyOf(intColumns[slot], capacity * type.getWidth());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Archetype" + Arrays.toString(types) + " x" + count;
+    }
+}
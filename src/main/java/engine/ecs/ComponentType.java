@@ -0,0 +1,90 @@
+package engine.ecs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes one entity component as a fixed number of primitive values.
+ *
+ * Archetypes store each type as a single column of width values per entity
+ * (floats or ints), so a system reads one contiguous array per component
+ * instead of an object per entity. Anything that is not a number, such as
+ * a Mesh or Material, is kept in the world's shared table and referenced
+ * from an int column.
+ *
+ * Every type gets a bit in a 64-bit mask; archetypes and queries are
+ * identified by these masks.
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class ComponentType {
+
+    public static final int MAX_TYPES = 64;
+
+    public enum Kind { FLOAT, INT }
+
+    private static final List<ComponentType> registered = new ArrayList<>();
+
+    private final int id;
+    private final String name;
+    private final Kind kind;
+    private final int width;
+
+    private ComponentType(int id, String name, Kind kind, int width) {
+        this.id = id;
+        this.name = name;
+        this.kind = kind;
+        this.width = width;
+    }
+
+    public static synchronized ComponentType floats(String name, int width) {
+        return register(name, Kind.FLOAT, width);
+    }
+
+    public static synchronized ComponentType ints(String name, int width) {
+        return register(name, Kind.INT, width);
+    }
+
+    private static ComponentType register(String name, Kind kind, int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Component '" + name + "' needs a width of at least 1");
+        }
+        if (registered.size() == MAX_TYPES) {
+            throw new IllegalStateException("Cannot register '" + name + "': at most " + MAX_TYPES + " component types");
+        }
+        ComponentType type = new ComponentType(registered.size(), name, kind, width);
+        registered.add(type);
+        return type;
+    }
+
+    static ComponentType byId(int id) {
+        return registered.get(id);
+    }
+
+    public static List<ComponentType> all() {
+        return Collections.unmodifiableList(registered);
+    }
+
+    // The mask with a bit set for each of types
+    public static long mask(ComponentType... types) {
+        long mask = 0L;
+        for (ComponentType t : types) {
+            mask |= t.bit();
+        }
+        return mask;
+    }
+
+    public long bit() { return 1L << id; }
+    public int getId() { return id; }
+    public String getName() { return name; }
+    public Kind getKind() { return kind; }
+    public int getWidth() { return width; }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,27 @@
+package engine.ecs;
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+
+// The component types used by the built-in systems and EntityLoader
+public final class CoreComponents {
+
+    // Local translation x, y, z
+    public static final ComponentType POSITION = ComponentType.floats("Position", 3);
+    // Local rotation as a unit quaternion x, y, z, w
+    public static final ComponentType ROTATION = ComponentType.floats("Rotation", 4);
+    public static final ComponentType SCALE = ComponentType.floats("Scale", 3);
+    // World matrix, column-major as in Mat4
+    public static final ComponentType LOCAL_TO_WORLD = ComponentType.floats("LocalToWorld", 16);
+
+    // Parent entity and the fixed matrix from this entity's space to the parent's
+    public static final ComponentType PARENT = ComponentType.ints("Parent", 1);
+    public static final ComponentType LOCAL_TO_PARENT = ComponentType.floats("LocalToParent", 16);
+
+    // Index of a RenderMesh in the world's shared table
+    public static final ComponentType RENDER_MESH = ComponentType.ints("RenderMesh", 1);
+
+    private CoreComponents() {
+    }
+}
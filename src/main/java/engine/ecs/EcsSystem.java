@@ -0,0 +1,10 @@
+package engine.ecs;
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+
+// A per-frame pass over the archetypes of an EntityWorld
+public interface EcsSystem {
+    void update(EntityWorld world);
+}
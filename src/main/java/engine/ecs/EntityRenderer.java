@@ -0,0 +1,68 @@
+package engine.ecs;
+
+import java.util.List;
+
+import engine.gmaths.Mat4Batch;
+import engine.rendering.RenderQueue;
+import engine.scene.Frustum;
+
+/**
+ * Queues every entity with a LocalToWorld and a RenderMesh for drawing,
+ * the entity equivalent of MeshRenderer.
+ *
+ * Entities go into the same RenderQueue as the scene's MeshRenderers, so
+ * they are sorted by state and depth together with them. When a frustum
+ * is given, entities whose world bounds fall outside it are skipped.
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class EntityRenderer {
+
+    private final float[] worldBounds = new float[6];
+    private EntityWorld queriedWorld;
+    private List<Archetype> drawable;
+    private int visibleCount;
+    private int culledCount;
+
+    // frustum may be null to queue everything
+    public void enqueue(EntityWorld world, RenderQueue queue, Frustum frustum) {
+        if (world != queriedWorld) {
+            queriedWorld = world;
+            drawable = world.query(CoreComponents.LOCAL_TO_WORLD, CoreComponents.RENDER_MESH);
+        }
+
+        visibleCount = 0;
+        culledCount = 0;
+        for (int a = 0; a < drawable.size(); a++) {
+            Archetype archetype = drawable.get(a);
+            float[] worldMatrices = archetype.floats(CoreComponents.LOCAL_TO_WORLD);
+            int[] meshes = archetype.ints(CoreComponents.RENDER_MESH);
+            int n = archetype.size();
+            for (int r = 0; r < n; r++) {
+                RenderMesh renderMesh = (RenderMesh) world.getShared(meshes[r]);
+                if (frustum != null) {
+                    Mat4Batch.transformBounds(worldMatrices, r * Mat4Batch.STRIDE,
+                                              renderMesh.mesh.getLocalBounds(), 0, worldBounds, 0);
+                    if (!frustum.intersectsBounds(worldBounds, 0)) {
+                        culledCount++;
+                        continue;
+                    }
+                }
+                visibleCount++;
+                queue.add(renderMesh.mesh, renderMesh.material, worldMatrices, r * Mat4Batch.STRIDE);
+            }
+        }
+    }
+
+    // Entities queued by the last enqueue call
+    public int getVisibleCount() {
+        return visibleCount;
+    }
+
+    // Entities skipped by the last enqueue call for lying outside the frustum
+    public int getCulledCount() {
+        return culledCount;
+    }
+}
@@ -0,0 +1,218 @@
+package engine.ecs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Archetype-based entity storage, an opt-in alternative to GameObjects for
+ * large numbers of simple objects (crowds, vegetation).
+ *
+ * An entity is an int id with no object behind it. Its components live in
+ * the Archetype for its exact set of types, so systems run as flat loops
+ * over primitive columns. Adding or removing a component moves the entity's
+ * row to another archetype.
+ *
+ * Ids of destroyed entities are reused by later calls to create.
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class EntityWorld {
+
+    private static final int INITIAL_ARCHETYPE_CAPACITY = 64;
+
+    private final Map<Long, Archetype> archetypes = new HashMap<>();
+    private final List<Archetype> archetypeList = new ArrayList<>();
+    private final Map<Long, Query> queries = new HashMap<>();
+    private final List<EcsSystem> systems = new ArrayList<>();
+
+    // Objects referenced from int columns (meshes, materials, paths...)
+    private final List<Object> shared = new ArrayList<>();
+    private final Map<String, Integer> sharedByKey = new HashMap<>();
+
+    // Location of every entity; a null archetype marks a free id
+    private Archetype[] entityArchetype = new Archetype[64];
+    private int[] entityRow = new int[64];
+    private int[] freeIds = new int[16];
+    private int freeCount = 0;
+    private int nextId = 0;
+    private int aliveCount = 0;
+
+    private static final class Query {
+        final long mask;
+        final List<Archetype> matches = new ArrayList<>();
+        final List<Archetype> view = Collections.unmodifiableList(matches);
+
+        Query(long mask) {
+            this.mask = mask;
+        }
+    }
+
+    public int create(ComponentType... types) {
+        int entity;
+        if (freeCount > 0) {
+            entity = freeIds[--freeCount];
+        } else {
+            entity = nextId++;
+            if (entity == entityArchetype.length) {
+                entityArchetype = Arrays.copyOf(entityArchetype, entity * 2);
+                entityRow = Arrays.copyOf(entityRow, entity * 2);
+            }
+        }
+        Archetype archetype = archetypeFor(ComponentType.mask(types));
+        entityArchetype[entity] = archetype;
+        entityRow[entity] = archetype.add(entity);
+        aliveCount++;
+        return entity;
+    }
+
+    public void destroy(int entity) {
+        Archetype archetype = archetypeOf(entity);
+        removeRow(archetype, entityRow[entity]);
+        entityArchetype[entity] = null;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = entity;
+        aliveCount--;
+    }
+
+    public boolean isAlive(int entity) {
+        return entity >= 0 && entity < nextId && entityArchetype[entity] != null;
+    }
+
+    public int size() {
+        return aliveCount;
+    }
+
+    public boolean has(int entity, ComponentType type) {
+        return archetypeOf(entity).has(type);
+    }
+
+    // Adds type (zeroed) to entity, moving it to the matching archetype
+    public void add(int entity, ComponentType type) {
+        Archetype from = archetypeOf(entity);
+        if (!from.has(type)) {
+            move(entity, from, archetypeFor(from.getMask() | type.bit()));
+        }
+    }
+
+    public void remove(int entity, ComponentType type) {
+        Archetype from = archetypeOf(entity);
+        if (from.has(type)) {
+            move(entity, from, archetypeFor(from.getMask() & ~type.bit()));
+        }
+    }
+
+    public Archetype archetypeOf(int entity) {
+        if (!isAlive(entity)) {
+            throw new IllegalArgumentException("Entity " + entity + " does not exist");
+        }
+        return entityArchetype[entity];
+    }
+
+    // The entity's row in archetypeOf(entity); changes when entities are removed or moved
+    public int rowOf(int entity) {
+        archetypeOf(entity);
+        return entityRow[entity];
+    }
+
+    public void set(int entity, ComponentType type, float... values) {
+        Archetype a = archetypeOf(entity);
+        System.arraycopy(values, 0, a.floats(type), entityRow[entity] * type.getWidth(), type.getWidth());
+    }
+
+    public void set(int entity, ComponentType type, int value) {
+        Archetype a = archetypeOf(entity);
+        a.ints(type)[entityRow[entity] * type.getWidth()] = value;
+    }
+
+    public float getFloat(int entity, ComponentType type, int element) {
+        Archetype a = archetypeOf(entity);
+        return a.floats(type)[entityRow[entity] * type.getWidth() + element];
+    }
+
+    public int getInt(int entity, ComponentType type) {
+        Archetype a = archetypeOf(entity);
+        return a.ints(type)[entityRow[entity] * type.getWidth()];
+    }
+
+    /**
+     * Every archetype containing at least the given types. The returned
+     * list is read-only and cached, and grows as new archetypes appear, so
+     * a system can look it up once and iterate it every frame.
+     */
+    public List<Archetype> query(ComponentType... required) {
+        long mask = ComponentType.mask(required);
+        Query query = queries.get(mask);
+        if (query == null) {
+            query = new Query(mask);
+            for (Archetype a : archetypeList) {
+                if (a.matches(mask)) query.matches.add(a);
+            }
+            queries.put(mask, query);
+        }
+        return query.view;
+    }
+
+    // Registers a shared object under key, creating it on first use; returns its index
+    public int share(String key, Supplier<?> factory) {
+        Integer index = sharedByKey.get(key);
+        if (index == null) {
+            index = shared.size();
+            shared.add(factory.get());
+            sharedByKey.put(key, index);
+        }
+        return index;
+    }
+
+    public Object getShared(int index) {
+        return shared.get(index);
+    }
+
+    public void addSystem(EcsSystem system) {
+        systems.add(system);
+    }
+
+    // Runs every system in the order they were added
+    public void update() {
+        for (int i = 0; i < systems.size(); i++) {
+            systems.get(i).update(this);
+        }
+    }
+
+    private Archetype archetypeFor(long mask) {
+        Archetype archetype = archetypes.get(mask);
+        if (archetype == null) {
+            archetype = new Archetype(mask, INITIAL_ARCHETYPE_CAPACITY);
+            archetypes.put(mask, archetype);
+            archetypeList.add(archetype);
+            for (Query query : queries.values()) {
+                if (archetype.matches(query.mask)) query.matches.add(archetype);
+            }
+        }
+        return archetype;
+    }
+
+    private void move(int entity, Archetype from, Archetype to) {
+        int fromRow = entityRow[entity];
+        int toRow = to.add(entity);
+        from.copyRow(fromRow, to, toRow);
+        removeRow(from, fromRow);
+        entityArchetype[entity] = to;
+        entityRow[entity] = toRow;
+    }
+
+    private void removeRow(Archetype archetype, int row) {
+        int moved = archetype.remove(row);
+        if (moved >= 0) {
+            entityRow[moved] = row;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package engine.ecs;
+
+import engine.rendering.Material;
+import engine.rendering.Mesh;
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+
+// The mesh and material an entity is drawn with, held in the world's shared table
+public final class RenderMesh {
+    public final Mesh mesh;
+    public final Material material;
+
+    public RenderMesh(Mesh mesh, Material material) {
+        this.mesh = mesh;
+        this.material = material;
+    }
+}
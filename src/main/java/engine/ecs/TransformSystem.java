@@ -0,0 +1,66 @@
+package engine.ecs;
+
+import java.util.List;
+
+import engine.gmaths.Mat4Batch;
+
+/**
+ * Rebuilds LocalToWorld from Position, Rotation and Scale for every entity
+ * that has all four, then composes LocalToWorld = parent x LocalToParent for
+ * parented entities.
+ *
+ * Parents must not be parented themselves; EntityLoader flattens deeper
+ * hierarchies into fixed offsets from the root.
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class TransformSystem implements EcsSystem {
+
+    private EntityWorld queriedWorld;
+    private List<Archetype> trsArchetypes;
+    private List<Archetype> childArchetypes;
+
+    @Override
+    public void update(EntityWorld world) {
+        if (world != queriedWorld) {
+            queriedWorld = world;
+            trsArchetypes = world.query(CoreComponents.POSITION, CoreComponents.ROTATION,
+                                        CoreComponents.SCALE, CoreComponents.LOCAL_TO_WORLD);
+            childArchetypes = world.query(CoreComponents.PARENT, CoreComponents.LOCAL_TO_PARENT,
+                                          CoreComponents.LOCAL_TO_WORLD);
+        }
+
+        for (int a = 0; a < trsArchetypes.size(); a++) {
+            Archetype archetype = trsArchetypes.get(a);
+            float[] p = archetype.floats(CoreComponents.POSITION);
+            float[] q = archetype.floats(CoreComponents.ROTATION);
+            float[] s = archetype.floats(CoreComponents.SCALE);
+            float[] worldMatrices = archetype.floats(CoreComponents.LOCAL_TO_WORLD);
+            int n = archetype.size();
+            for (int r = 0; r < n; r++) {
+                int p3 = r * 3, q4 = r * 4;
+                Mat4Batch.setTRS(worldMatrices, r * Mat4Batch.STRIDE,
+                    p[p3], p[p3 + 1], p[p3 + 2],
+                    q[q4], q[q4 + 1], q[q4 + 2], q[q4 + 3],
+                    s[p3], s[p3 + 1], s[p3 + 2]);
+            }
+        }
+
+        for (int a = 0; a < childArchetypes.size(); a++) {
+            Archetype archetype = childArchetypes.get(a);
+            int[] parent = archetype.ints(CoreComponents.PARENT);
+            float[] local = archetype.floats(CoreComponents.LOCAL_TO_PARENT);
+            float[] worldMatrices = archetype.floats(CoreComponents.LOCAL_TO_WORLD);
+            int n = archetype.size();
+            for (int r = 0; r < n; r++) {
+                int entity = parent[r];
+                Archetype parentArchetype = world.archetypeOf(entity);
+                int o = r * Mat4Batch.STRIDE;
+                Mat4Batch.multiply(parentArchetype.floats(CoreComponents.LOCAL_TO_WORLD), world.rowOf(entity) * Mat4Batch.STRIDE,
+                                   local, o, worldMatrices, o);
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package engine.gmaths;
 
+import java.nio.FloatBuffer;
+
 /**
  * A class for a 4x4 matrix.
  *
@@ -8,34 +10,30 @@ package engine.gmaths;
  */
 
 /* Altered to add fully typed construct, extractRotationTranslation, toEulerXYZ*/
+/* Altered to store values in a flat column-major float[16] and to add
+   in-place operations (multiplyInto, setTRS, setIdentity) and
+   copyTo/setFrom for Mat4Batch arrays, writeTo for FloatBuffers */
 /* Author Jakub Bala 
 jbala1@sheffield.ac.uk
 */
-public class Mat4 {   // row column formulation
+public class Mat4 {   // row column formulation, stored column-major
+
+  // element (r,c) lives at values[c*4 + r], the same layout GLSL expects
+  private final float[] values = new float[16];
 
-  private float[][] values;
-  
   public Mat4() {
     this(0);
   }
-  
+
   public Mat4(float f) {
-    values = new float[4][4];
-    makeZero();
-    for (int i=0; i<4; ++i) {
-      values[i][i] = f;
-    }
+    values[0] = f;
+    values[5] = f;
+    values[10] = f;
+    values[15] = f;
   }
 
-
-  
   public Mat4(Mat4 m) {
-    this.values = new float[4][4];
-    for (int i=0; i<4; ++i) {
-      for (int j=0; j<4; ++j) {
-        this.values[i][j] = m.values[i][j];
-      }
-    }
+    System.arraycopy(m.values, 0, values, 0, 16);
   }
 
   public Mat4(
@@ -44,138 +42,244 @@ public class Mat4 {   // row column formulation
     float m20, float m21, float m22, float m23,
     float m30, float m31, float m32, float m33
   ) {
-      values = new float[4][4];
-
-      values[0][0] = m00; values[0][1] = m01; values[0][2] = m02; values[0][3] = m03;
-      values[1][0] = m10; values[1][1] = m11; values[1][2] = m12; values[1][3] = m13;
-      values[2][0] = m20; values[2][1] = m21; values[2][2] = m22; values[2][3] = m23;
-      values[3][0] = m30; values[3][1] = m31; values[3][2] = m32; values[3][3] = m33;
+      values[0] = m00; values[4] = m01; values[8]  = m02; values[12] = m03;
+      values[1] = m10; values[5] = m11; values[9]  = m12; values[13] = m13;
+      values[2] = m20; values[6] = m21; values[10] = m22; values[14] = m23;
+      values[3] = m30; values[7] = m31; values[11] = m32; values[15] = m33;
   }
-  
+
   public void set(int r, int c, float f) {
-    values[r][c] = f;
+    values[c*4 + r] = f;
   }
 
   public float get(int r, int c) {
-    return values[r][c];
+    return values[c*4 + r];
+  }
+
+  /**
+   * Copies the values of another matrix into this one.
+   *
+   * @param m The matrix to copy
+   * @return  This matrix, for chaining
+   */
+  public Mat4 set(Mat4 m) {
+    System.arraycopy(m.values, 0, values, 0, 16);
+    return this;
   }
-  
+
+  /**
+   * Overwrites this matrix with the identity matrix.
+   *
+   * @return  This matrix, for chaining
+   */
+  public Mat4 setIdentity() {
+    makeZero();
+    values[0] = 1;
+    values[5] = 1;
+    values[10] = 1;
+    values[15] = 1;
+    return this;
+  }
+
   private void makeZero() {
-    for (int i=0; i<4; ++i) {
-      for (int j=0; j<4; ++j) {
-        values[i][j] = 0;
-      }
+    for (int i=0; i<16; ++i) {
+      values[i] = 0;
     }
   }
 
   public static Mat4 identity(){
     return new Mat4(1);
   }
+
   public void transpose() {
     for (int i=0; i<4; ++i) {
-      for (int j=i; j<4; ++j) {
-        float t = values[i][j];
-        values[i][j] = values[j][i];
-        values[j][i] = t;
+      for (int j=i+1; j<4; ++j) {
+        float t = values[j*4 + i];
+        values[j*4 + i] = values[i*4 + j];
+        values[i*4 + j] = t;
       }
     }
   }
-    
+
   public static Mat4 transpose(Mat4 m) {
     Mat4 a = new Mat4(m);
-    for (int i=0; i<4; ++i) {
-      for (int j=i; j<4; ++j) {
-        float t = a.values[i][j];
-        a.values[i][j] = a.values[j][i];
-        a.values[j][i] = t;
-      }
-    }
+    a.transpose();
     return a;
   }
 
   public static Mat4 multiply(Mat4 a, Mat4 b) {
-    Mat4 result = new Mat4();
-    for (int i=0; i<4; ++i) {
-      for (int j=0; j<4; ++j) {
-        for (int k=0; k<4; ++k) {
-          result.values[i][j] += a.values[i][k]*b.values[k][j];
-        }
-      }
-    }
-    return result;
+    return multiplyInto(a, b, new Mat4());
+  }
+
+  /**
+   * Computes a x b and writes the result into out.
+   * out may be the same object as a or b.
+   *
+   * @param a   The left hand matrix
+   * @param b   The right hand matrix
+   * @param out The matrix that receives the product
+   * @return  out, for chaining
+   */
+  public static Mat4 multiplyInto(Mat4 a, Mat4 b, Mat4 out) {
+    Mat4Batch.multiply(a.values, 0, b.values, 0, out.values, 0);
+    return out;
+  }
+
+  /**
+   * Copies the 16 column-major values of this matrix into dst at offset,
+   * e.g. one slot of a Mat4Batch array.
+   */
+  public void copyTo(float[] dst, int offset) {
+    System.arraycopy(values, 0, dst, offset, 16);
+  }
+
+  /**
+   * Overwrites this matrix with the 16 column-major values at src[offset].
+   *
+   * @return  This matrix, for chaining
+   */
+  public Mat4 setFrom(float[] src, int offset) {
+    System.arraycopy(src, offset, values, 0, 16);
+    return this;
+  }
+
+  /**
+   * Overwrites this matrix with T x R x S, where R = Rz x Ry x Rx
+   * built from Euler angles in degrees, using the same conventions as
+   * Mat4Transform.rotateAroundX/Y/Z.
+   *
+   * @return  This matrix, for chaining
+   */
+  public Mat4 setTRS(float tx, float ty, float tz,
+                     float rx, float ry, float rz,
+                     float sx, float sy, float sz) {
+    float ax = (float)(rx*Math.PI/180.0);
+    float ay = (float)(ry*Math.PI/180.0);
+    float az = (float)(rz*Math.PI/180.0);
+    float ca = (float)Math.cos(ax), sa = (float)Math.sin(ax);
+    float cb = (float)Math.cos(ay), sb = (float)Math.sin(ay);
+    float cc = (float)Math.cos(az), sc = (float)Math.sin(az);
+
+    // column 0
+    values[0] = cc*cb*sx;
+    values[1] = sc*cb*sx;
+    values[2] = sb*sx;
+    values[3] = 0;
+    // column 1
+    values[4] = (-cc*sb*sa - sc*ca)*sy;
+    values[5] = (-sc*sb*sa + cc*ca)*sy;
+    values[6] = cb*sa*sy;
+    values[7] = 0;
+    // column 2
+    values[8]  = (-cc*sb*ca + sc*sa)*sz;
+    values[9]  = (-sc*sb*ca - cc*sa)*sz;
+    values[10] = cb*ca*sz;
+    values[11] = 0;
+    // column 3
+    values[12] = tx;
+    values[13] = ty;
+    values[14] = tz;
+    values[15] = 1;
+    return this;
+  }
+
+  public Mat4 setTRS(Vec3 t, Vec3 eulerDegrees, Vec3 s) {
+    return setTRS(t.x, t.y, t.z, eulerDegrees.x, eulerDegrees.y, eulerDegrees.z, s.x, s.y, s.z);
+  }
+
+  /**
+   * Overwrites this matrix with T x R x S, where R is the rotation of the
+   * unit quaternion q. Built directly, with no trigonometry.
+   *
+   * @return  This matrix, for chaining
+   */
+  public Mat4 setTRS(float tx, float ty, float tz, Quat q,
+                     float sx, float sy, float sz) {
+    Mat4Batch.setTRS(values, 0, tx, ty, tz, q.x, q.y, q.z, q.w, sx, sy, sz);
+    return this;
   }
-  
+
+  public Mat4 setTRS(Vec3 t, Quat q, Vec3 s) {
+    return setTRS(t.x, t.y, t.z, q, s.x, s.y, s.z);
+  }
+
   public static Vec3 multiply(Mat4 m, Vec3 v) {
     Vec3 result = new Vec3();
-    result.x = m.values[0][0]*v.x + m.values[0][1]*v.y
-               + m.values[0][2]*v.z;
-    result.y = m.values[1][0]*v.x + m.values[1][1]*v.y
-               + m.values[1][2]*v.z;
-    result.z = m.values[2][0]*v.x + m.values[2][1]*v.y
-               + m.values[2][2]*v.z;
+    result.x = m.get(0,0)*v.x + m.get(0,1)*v.y
+               + m.get(0,2)*v.z;
+    result.y = m.get(1,0)*v.x + m.get(1,1)*v.y
+               + m.get(1,2)*v.z;
+    result.z = m.get(2,0)*v.x + m.get(2,1)*v.y
+               + m.get(2,2)*v.z;
     return result;
   }
 
   public float[] toFloatArrayForGLSL() {  // col by row
-    float[] f = new float[16];
-    for (int j=0; j<4; ++j) {
-      for (int i=0; i<4; ++i) {
-        f[j*4+i] = values[i][j];
-      }
+    return values.clone();
+  }
+
+  /**
+   * Writes the 16 column-major values into buf starting at offset, using
+   * absolute puts so the buffer's position is left unchanged.
+   *
+   * @param buf    The buffer to write into, e.g. a reusable direct buffer
+   * @param offset The index of the first float to write
+   */
+  public void writeTo(FloatBuffer buf, int offset) {
+    for (int i=0; i<16; ++i) {
+      buf.put(offset + i, values[i]);
     }
-    return f;
   }
-  
+
   public String asFloatArrayForGLSL() {  // col by row
     String s = "{";
-    for (int j=0; j<4; ++j) {
-      for (int i=0; i<4; ++i) {
-        s += String.format("%.2f",values[i][j]);
-        if (!(j==3 && i==3)) s+=",";
-      }
+    for (int i=0; i<16; ++i) {
+      s += String.format("%.2f",values[i]);
+      if (i<15) s+=",";
     }
     return s;
   }
-  
+
   public String toString() {
     String s = "{";
     for (int i=0; i<4; ++i) {
       s += (i==0) ? "{" : " {";
       for (int j=0; j<4; ++j) {
-        s += String.format("%.2f",values[i][j]);  
+        s += String.format("%.2f",get(i,j));
         if (j<3) s += ", ";
       }
       s += (i==3) ? "}" : "},\n";
-    } 
+    }
     s += "}";
     return s;
   }
 
   public static void extractRotationTranslation(Mat4 transform, Mat4 outRotation, Vec3 outTranslation) {
-    // --- Extract Translation (row-major) ---
-    outTranslation.x = transform.get(0, 3);
-    outTranslation.y = transform.get(1, 3);
-    outTranslation.z = transform.get(2, 3);
+    float[] m = transform.values;
 
-    // --- Extract Rotation (row-major 3x3) ---
-    Vec3 row0 = new Vec3(transform.get(0, 0), transform.get(0, 1), transform.get(0, 2));
-    Vec3 row1 = new Vec3(transform.get(1, 0), transform.get(1, 1), transform.get(1, 2));
-    Vec3 row2 = new Vec3(transform.get(2, 0), transform.get(2, 1), transform.get(2, 2));
+    // --- Extract Translation (column 3) ---
+    outTranslation.x = m[12];
+    outTranslation.y = m[13];
+    outTranslation.z = m[14];
 
+    // --- Extract Rotation (row-major 3x3) ---
     // Normalize rows to remove scale
-    row0.normalize();
-    row1.normalize();
-    row2.normalize();
+    float inv0 = invLength(m[0], m[4], m[8]);
+    float inv1 = invLength(m[1], m[5], m[9]);
+    float inv2 = invLength(m[2], m[6], m[10]);
 
     // Put rows back into a 4x4 rotation matrix
-    outRotation.set(0, 0, row0.x); outRotation.set(0, 1, row0.y); outRotation.set(0, 2, row0.z); outRotation.set(0, 3, 0);
-    outRotation.set(1, 0, row1.x); outRotation.set(1, 1, row1.y); outRotation.set(1, 2, row1.z); outRotation.set(1, 3, 0);
-    outRotation.set(2, 0, row2.x); outRotation.set(2, 1, row2.y); outRotation.set(2, 2, row2.z); outRotation.set(2, 3, 0);
+    float[] r = outRotation.values;
+    r[0] = m[0]*inv0; r[4] = m[4]*inv0; r[8]  = m[8]*inv0;  r[12] = 0;
+    r[1] = m[1]*inv1; r[5] = m[5]*inv1; r[9]  = m[9]*inv1;  r[13] = 0;
+    r[2] = m[2]*inv2; r[6] = m[6]*inv2; r[10] = m[10]*inv2; r[14] = 0;
+    r[3] = 0;         r[7] = 0;         r[11] = 0;          r[15] = 1;
+  }
 
-    outRotation.set(3, 0, 0);
-    outRotation.set(3, 1, 0);
-    outRotation.set(3, 2, 0);
-    outRotation.set(3, 3, 1);
+  // matches Vec3.normalize(): tiny vectors collapse to zero
+  private static float invLength(float x, float y, float z) {
+    float mag = (float)Math.sqrt(x*x + y*y + z*z);
+    return (mag < 1e-8f) ? 0f : 1.0f / mag;
   }
 
   public Vec3 toEulerXYZ() {
@@ -220,5 +324,5 @@ public class Mat4 {   // row column formulation
         (float)Math.toDegrees(roll)
     );
   }
-  
+
 } // end of Mat4 class
\ No newline at end of file
@@ -0,0 +1,146 @@
+package engine.gmaths;
+
+/**
+ * Batched 4x4 matrix kernels over flat float arrays.
+ *
+ * Matrix i of a batch occupies floats [i*16, i*16 + 16) in the same
+ * column-major layout as Mat4, so a whole batch can be filled with
+ * Mat4.copyTo and uploaded to GL without repacking. Point kernels read
+ * x, y, z triples at a given stride, packed or inside interleaved vertices.
+ *
+ * The kernels are straight-line scalar code with no per-element objects
+ * or bounds-dependent branches, which leaves HotSpot free to unroll and
+ * auto-vectorise them.
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class Mat4Batch {
+
+  public static final int STRIDE = 16;
+
+  private Mat4Batch() {
+  }
+
+  /**
+   * Computes out[i] = a[i] x b[i] for count matrices.
+   * out may be the same array as a or b.
+   */
+  public static void multiply(float[] a, float[] b, float[] out, int count) {
+    for (int i=0; i<count; ++i) {
+      int o = i*STRIDE;
+      multiply(a, o, b, o, out, o);
+    }
+  }
+
+  /**
+   * Transforms count points (w = 1) by the affine matrix at m[mOffset].
+   * Point k is the x, y, z at in[io + k*stride] and goes to
+   * out[oo + k*stride], so packed triples use a stride of 3 and positions
+   * inside interleaved vertices use the vertex size. Floats between the
+   * points are left alone. out may be the same array as in.
+   */
+  public static void transformPoints(float[] m, int mOffset, float[] in, int io,
+                                     float[] out, int oo, int stride, int count) {
+    float m00 = m[mOffset],     m10 = m[mOffset + 1],  m20 = m[mOffset + 2];
+    float m01 = m[mOffset + 4], m11 = m[mOffset + 5],  m21 = m[mOffset + 6];
+    float m02 = m[mOffset + 8], m12 = m[mOffset + 9],  m22 = m[mOffset + 10];
+    float m03 = m[mOffset + 12], m13 = m[mOffset + 13], m23 = m[mOffset + 14];
+
+    for (int k=0; k<count; ++k) {
+      int i = io + k*stride, o = oo + k*stride;
+      float x = in[i], y = in[i + 1], z = in[i + 2];
+      out[o]     = m00*x + m01*y + m02*z + m03;
+      out[o + 1] = m10*x + m11*y + m12*z + m13;
+      out[o + 2] = m20*x + m21*y + m22*z + m23;
+    }
+  }
+
+  /**
+   * Transforms the axis-aligned box at in[io] (min x, y, z then max x, y, z)
+   * by the affine matrix at m[mOffset] and writes the axis-aligned box that
+   * encloses the result to out[oo]. Uses the centre and half-extents, so
+   * there are no per-corner transforms. out may be the same array as in.
+   */
+  public static void transformBounds(float[] m, int mOffset, float[] in, int io, float[] out, int oo) {
+    float cx = (in[io] + in[io + 3])*0.5f, ex = (in[io + 3] - in[io])*0.5f;
+    float cy = (in[io + 1] + in[io + 4])*0.5f, ey = (in[io + 4] - in[io + 1])*0.5f;
+    float cz = (in[io + 2] + in[io + 5])*0.5f, ez = (in[io + 5] - in[io + 2])*0.5f;
+
+    float m00 = m[mOffset],     m10 = m[mOffset + 1],  m20 = m[mOffset + 2];
+    float m01 = m[mOffset + 4], m11 = m[mOffset + 5],  m21 = m[mOffset + 6];
+    float m02 = m[mOffset + 8], m12 = m[mOffset + 9],  m22 = m[mOffset + 10];
+
+    float wx = m00*cx + m01*cy + m02*cz + m[mOffset + 12];
+    float wy = m10*cx + m11*cy + m12*cz + m[mOffset + 13];
+    float wz = m20*cx + m21*cy + m22*cz + m[mOffset + 14];
+    float hx = Math.abs(m00)*ex + Math.abs(m01)*ey + Math.abs(m02)*ez;
+    float hy = Math.abs(m10)*ex + Math.abs(m11)*ey + Math.abs(m12)*ez;
+    float hz = Math.abs(m20)*ex + Math.abs(m21)*ey + Math.abs(m22)*ez;
+
+    out[oo]     = wx - hx;
+    out[oo + 1] = wy - hy;
+    out[oo + 2] = wz - hz;
+    out[oo + 3] = wx + hx;
+    out[oo + 4] = wy + hy;
+    out[oo + 5] = wz + hz;
+  }
+
+  /**
+   * Writes T x R x S into the 16 floats at out[o], where R is the rotation
+   * of the unit quaternion (qx, qy, qz, qw).
+   */
+  public static void setTRS(float[] out, int o,
+                            float tx, float ty, float tz,
+                            float qx, float qy, float qz, float qw,
+                            float sx, float sy, float sz) {
+    float xx = qx*qx, yy = qy*qy, zz = qz*qz;
+    float xy = qx*qy, xz = qx*qz, yz = qy*qz;
+    float wx = qw*qx, wy = qw*qy, wz = qw*qz;
+
+    // column 0
+    out[o]      = (1 - 2*(yy + zz))*sx;
+    out[o + 1]  = 2*(xy + wz)*sx;
+    out[o + 2]  = 2*(xz - wy)*sx;
+    out[o + 3]  = 0;
+    // column 1
+    out[o + 4]  = 2*(xy - wz)*sy;
+    out[o + 5]  = (1 - 2*(xx + zz))*sy;
+    out[o + 6]  = 2*(yz + wx)*sy;
+    out[o + 7]  = 0;
+    // column 2
+    out[o + 8]  = 2*(xz + wy)*sz;
+    out[o + 9]  = 2*(yz - wx)*sz;
+    out[o + 10] = (1 - 2*(xx + yy))*sz;
+    out[o + 11] = 0;
+    // column 3
+    out[o + 12] = tx;
+    out[o + 13] = ty;
+    out[o + 14] = tz;
+    out[o + 15] = 1;
+  }
+
+  /**
+   * Writes a x b into out, where each operand is the 16 floats starting at
+   * the given offset. out may overlap a or b exactly.
+   */
+  public static void multiply(float[] a, int ao, float[] b, int bo, float[] out, int oo) {
+    float a00 = a[ao],      a10 = a[ao + 1],  a20 = a[ao + 2],  a30 = a[ao + 3];
+    float a01 = a[ao + 4],  a11 = a[ao + 5],  a21 = a[ao + 6],  a31 = a[ao + 7];
+    float a02 = a[ao + 8],  a12 = a[ao + 9],  a22 = a[ao + 10], a32 = a[ao + 11];
+    float a03 = a[ao + 12], a13 = a[ao + 13], a23 = a[ao + 14], a33 = a[ao + 15];
+
+    for (int c=0; c<16; c+=4) {
+      float b0 = b[bo + c];
+      float b1 = b[bo + c + 1];
+      float b2 = b[bo + c + 2];
+      float b3 = b[bo + c + 3];
+      out[oo + c]     = a00*b0 + a01*b1 + a02*b2 + a03*b3;
+      out[oo + c + 1] = a10*b0 + a11*b1 + a12*b2 + a13*b3;
+      out[oo + c + 2] = a20*b0 + a21*b1 + a22*b2 + a23*b3;
+      out[oo + c + 3] = a30*b0 + a31*b1 + a32*b2 + a33*b3;
+    }
+  }
+
+} // end of Mat4Batch class
@@ -159,62 +159,149 @@ public final class Mat4Transform  {   // row column formulation
    * @return  The 4x4 viewing matrix, as a Mat4.
    */
    public static Mat4 lookAt(Vec3 from, Vec3 to, Vec3 worldup) {
-    Vec3 front = Vec3.subtract(to, from);
-    front.normalize();
-    Vec3 right = Vec3.crossProduct(front, worldup);
-    right.normalize();
-    Vec3 up = Vec3.crossProduct(right, front);
-    up.normalize();
-    Mat4 view = new Mat4(1);
-    view.set(0, 0, right.x);
-    view.set(0, 1, right.y);
-    view.set(0, 2, right.z);
-    view.set(1, 0, up.x);
-    view.set(1, 1, up.y);
-    view.set(1, 2, up.z);
-    view.set(2, 0, -front.x);
-    view.set(2, 1, -front.y);
-    view.set(2, 2, -front.z);
-    Mat4 cam = new Mat4(1);
-    cam.set(0, 3, -from.x);
-    cam.set(1, 3, -from.y);
-    cam.set(2, 3, -from.z);
-    Mat4 result = Mat4.multiply(view, cam);
-    return result;
+    return lookAt(from, to, worldup, new Mat4());
   }
 
+  /**
+   * As lookAt(from, to, worldup), but writes the viewing matrix into out instead of allocating.
+   * 
+   * @param from The camera postion.
+   * @param to The target that the camera is looking at.
+   * @param worldup The up direction for the world. 
+   * @param out The matrix that receives the result.
+   * @return  out, as a Mat4.
+   */
+   public static Mat4 lookAt(Vec3 from, Vec3 to, Vec3 worldup, Mat4 out) {
+    Vec3Pool pool = Vec3Pool.get();
+    int mark = pool.mark();
+    try {
+      Vec3 front = Vec3.normalizeInto(Vec3.subtractInto(to, from, pool.take()), pool.take());
+      Vec3 right = Vec3.normalizeInto(Vec3.crossProductInto(front, worldup, pool.take()), pool.take());
+      Vec3 up = Vec3.normalizeInto(Vec3.crossProductInto(right, front, pool.take()), pool.take());
+      // view rotation rows multiplied by the camera translation, in one pass
+      out.set(0, 0, right.x);
+      out.set(0, 1, right.y);
+      out.set(0, 2, right.z);
+      out.set(0, 3, -Vec3.dotProduct(right, from));
+      out.set(1, 0, up.x);
+      out.set(1, 1, up.y);
+      out.set(1, 2, up.z);
+      out.set(1, 3, -Vec3.dotProduct(up, from));
+      out.set(2, 0, -front.x);
+      out.set(2, 1, -front.y);
+      out.set(2, 2, -front.z);
+      out.set(2, 3, Vec3.dotProduct(front, from));
+      out.set(3, 0, 0);
+      out.set(3, 1, 0);
+      out.set(3, 2, 0);
+      out.set(3, 3, 1);
+      return out;
+    } finally {
+      pool.release(mark);
+    }
+  }
+
+  /**
+   * Inverts a rigid transform (rotation and translation only).
+   * Kept as the original behaviour; see inverseRigid.
+   *
+   * @param m A rigid transform.
+   * @return  The inverse, as a new Mat4.
+   */
   public static Mat4 inverse(Mat4 m) {
-    // Extract rotation part
+    return inverseRigid(m, new Mat4());
+  }
+
+  /**
+   * Inverts a rigid transform, i.e. one with no scale or shear.
+   * The inverse rotation is the transpose and the inverse translation is -R^T * T.
+   *
+   * @param m A rigid transform.
+   * @param out The matrix that receives the inverse. May be m.
+   * @return  out, as a Mat4.
+   */
+  public static Mat4 inverseRigid(Mat4 m, Mat4 out) {
     float r00 = m.get(0,0), r01 = m.get(0,1), r02 = m.get(0,2);
     float r10 = m.get(1,0), r11 = m.get(1,1), r12 = m.get(1,2);
     float r20 = m.get(2,0), r21 = m.get(2,1), r22 = m.get(2,2);
+    float tx = m.get(0,3), ty = m.get(1,3), tz = m.get(2,3);
+
+    out.set(0,0, r00); out.set(0,1, r10); out.set(0,2, r20);
+    out.set(1,0, r01); out.set(1,1, r11); out.set(1,2, r21);
+    out.set(2,0, r02); out.set(2,1, r12); out.set(2,2, r22);
+
+    out.set(0,3, -(r00*tx + r10*ty + r20*tz));
+    out.set(1,3, -(r01*tx + r11*ty + r21*tz));
+    out.set(2,3, -(r02*tx + r12*ty + r22*tz));
+
+    out.set(3,0, 0); out.set(3,1, 0); out.set(3,2, 0); out.set(3,3, 1);
+    return out;
+  }
+
+  /**
+   * Inverts an affine transform (any TRS, including non-uniform scale),
+   * i.e. one whose bottom row is (0, 0, 0, 1). Only the upper 3x3 block
+   * is inverted, which is far cheaper than a general 4x4 inverse.
+   * A singular matrix (e.g. a zero scale) gives the identity.
+   *
+   * @param m An affine transform.
+   * @param out The matrix that receives the inverse. May be m.
+   * @return  out, as a Mat4.
+   */
+  public static Mat4 inverseAffine(Mat4 m, Mat4 out) {
+    float a00 = m.get(0,0), a01 = m.get(0,1), a02 = m.get(0,2);
+    float a10 = m.get(1,0), a11 = m.get(1,1), a12 = m.get(1,2);
+    float a20 = m.get(2,0), a21 = m.get(2,1), a22 = m.get(2,2);
+    float tx = m.get(0,3), ty = m.get(1,3), tz = m.get(2,3);
 
-    // Extract translation part
-    float tx = m.get(0,3);
-    float ty = m.get(1,3);
-    float tz = m.get(2,3);
+    // cofactors of the first row give the determinant
+    float c00 = a11*a22 - a12*a21;
+    float c01 = a12*a20 - a10*a22;
+    float c02 = a10*a21 - a11*a20;
+    float det = a00*c00 + a01*c01 + a02*c02;
+    if (Math.abs(det) < 1e-12f) {
+      return out.setIdentity();
+    }
+    float invDet = 1.0f / det;
 
-    // Inverse rotation is transpose (only when no shear)
-    Mat4 inv = new Mat4(1);
+    float i00 = c00*invDet;
+    float i01 = (a02*a21 - a01*a22)*invDet;
+    float i02 = (a01*a12 - a02*a11)*invDet;
+    float i10 = c01*invDet;
+    float i11 = (a00*a22 - a02*a20)*invDet;
+    float i12 = (a02*a10 - a00*a12)*invDet;
+    float i20 = c02*invDet;
+    float i21 = (a01*a20 - a00*a21)*invDet;
+    float i22 = (a00*a11 - a01*a10)*invDet;
 
-    inv.set(0,0, r00); inv.set(0,1, r10); inv.set(0,2, r20);
-    inv.set(1,0, r01); inv.set(1,1, r11); inv.set(1,2, r21);
-    inv.set(2,0, r02); inv.set(2,1, r12); inv.set(2,2, r22);
+    out.set(0,0, i00); out.set(0,1, i01); out.set(0,2, i02);
+    out.set(1,0, i10); out.set(1,1, i11); out.set(1,2, i12);
+    out.set(2,0, i20); out.set(2,1, i21); out.set(2,2, i22);
 
-    // Inverse translation = -R^T * T
-    float itx = -(inv.get(0,0)*tx + inv.get(0,1)*ty + inv.get(0,2)*tz);
-    float ity = -(inv.get(1,0)*tx + inv.get(1,1)*ty + inv.get(1,2)*tz);
-    float itz = -(inv.get(2,0)*tx + inv.get(2,1)*ty + inv.get(2,2)*tz);
+    out.set(0,3, -(i00*tx + i01*ty + i02*tz));
+    out.set(1,3, -(i10*tx + i11*ty + i12*tz));
+    out.set(2,3, -(i20*tx + i21*ty + i22*tz));
 
-    inv.set(0,3, itx);
-    inv.set(1,3, ity);
-    inv.set(2,3, itz);
+    out.set(3,0, 0); out.set(3,1, 0); out.set(3,2, 0); out.set(3,3, 1);
+    return out;
+  }
 
-    return inv;
+  // out may be v; applies translation (w = 1)
+  public static Vec3 multiplyPoint(Mat4 m, Vec3 v, Vec3 out) {
+    return out.set(
+        m.get(0,0)*v.x + m.get(0,1)*v.y + m.get(0,2)*v.z + m.get(0,3),
+        m.get(1,0)*v.x + m.get(1,1)*v.y + m.get(1,2)*v.z + m.get(1,3),
+        m.get(2,0)*v.x + m.get(2,1)*v.y + m.get(2,2)*v.z + m.get(2,3)
+    );
   }
 
   public static Vec3 multiplyDirection(Mat4 m, Vec3 v) {
-    return new Vec3(
+    return multiplyDirection(m, v, new Vec3());
+  }
+
+  // out may be v
+  public static Vec3 multiplyDirection(Mat4 m, Vec3 v, Vec3 out) {
+    return out.set(
         m.get(0,0)*v.x + m.get(0,1)*v.y + m.get(0,2)*v.z,
         m.get(1,0)*v.x + m.get(1,1)*v.y + m.get(1,2)*v.z,
         m.get(2,0)*v.x + m.get(2,1)*v.y + m.get(2,2)*v.z
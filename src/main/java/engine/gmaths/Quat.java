@@ -0,0 +1,219 @@
+package engine.gmaths;
+
+/**
+ * A class for a unit quaternion representing a rotation.
+ * This includes four components: x, y, z (vector part) and w (scalar part).
+ *
+ * Euler conversions use the same conventions as Transform and Mat4Transform:
+ * angles in degrees, applied as Rz x Ry x Rx, with rotateAroundY's sign.
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class Quat {
+  public float x;
+  public float y;
+  public float z;
+  public float w;
+
+  public static Quat identity() {
+    return new Quat();
+  }
+
+  public Quat() {
+    this(0, 0, 0, 1);
+  }
+
+  public Quat(float x, float y, float z, float w) {
+    this.x = x;
+    this.y = y;
+    this.z = z;
+    this.w = w;
+  }
+
+  public Quat(Quat q) {
+    this(q.x, q.y, q.z, q.w);
+  }
+
+  public Quat set(float x, float y, float z, float w) {
+    this.x = x;
+    this.y = y;
+    this.z = z;
+    this.w = w;
+    return this;
+  }
+
+  public Quat set(Quat q) {
+    return set(q.x, q.y, q.z, q.w);
+  }
+
+  public Quat setIdentity() {
+    return set(0, 0, 0, 1);
+  }
+
+  public void normalize() {
+    float mag = (float)Math.sqrt(x*x + y*y + z*z + w*w);
+    if (mag < 1e-8f) {
+      setIdentity();
+      return;
+    }
+    float inv = 1.0f / mag;
+    x *= inv;
+    y *= inv;
+    z *= inv;
+    w *= inv;
+  }
+
+  public void conjugate() {
+    x = -x;
+    y = -y;
+    z = -z;
+  }
+
+  // Hamilton product a x b (apply b, then a); out may be a or b
+  public static Quat multiply(Quat a, Quat b, Quat out) {
+    return out.set(
+      a.w*b.x + a.x*b.w + a.y*b.z - a.z*b.y,
+      a.w*b.y - a.x*b.z + a.y*b.w + a.z*b.x,
+      a.w*b.z + a.x*b.y - a.y*b.x + a.z*b.w,
+      a.w*b.w - a.x*b.x - a.y*b.y - a.z*b.z
+    );
+  }
+
+  // Hamilton product over packed (x, y, z, w) arrays; out may overlap a or b exactly
+  public static void multiply(float[] a, int ao, float[] b, int bo, float[] out, int oo) {
+    float ax = a[ao], ay = a[ao + 1], az = a[ao + 2], aw = a[ao + 3];
+    float bx = b[bo], by = b[bo + 1], bz = b[bo + 2], bw = b[bo + 3];
+    out[oo]     = aw*bx + ax*bw + ay*bz - az*by;
+    out[oo + 1] = aw*by - ax*bz + ay*bw + az*bx;
+    out[oo + 2] = aw*bz + ax*by - ay*bx + az*bw;
+    out[oo + 3] = aw*bw - ax*bx - ay*by - az*bz;
+  }
+
+  /**
+   * Sets this quaternion from Euler angles in degrees,
+   * matching Mat4Transform.rotateAroundZ(z) x rotateAroundY(y) x rotateAroundX(x).
+   */
+  public Quat setFromEulerXYZ(float xDegrees, float yDegrees, float zDegrees) {
+    float hx = (float)(xDegrees*Math.PI/360.0);
+    float hy = (float)(-yDegrees*Math.PI/360.0);   // rotateAroundY turns the other way
+    float hz = (float)(zDegrees*Math.PI/360.0);
+    float cx = (float)Math.cos(hx), sx = (float)Math.sin(hx);
+    float cy = (float)Math.cos(hy), sy = (float)Math.sin(hy);
+    float cz = (float)Math.cos(hz), sz = (float)Math.sin(hz);
+
+    // qz x qy x qx, expanded
+    return set(
+      cz*cy*sx - sz*sy*cx,
+      cz*sy*cx + sz*cy*sx,
+      sz*cy*cx - cz*sy*sx,
+      cz*cy*cx + sz*sy*sx
+    );
+  }
+
+  /**
+   * Writes the Euler angles (degrees) of this rotation into out, using the
+   * convention of setFromEulerXYZ. Of the two equivalent solutions the one
+   * with |z| <= 90 is returned, so roll-free rotations read back with z = 0.
+   */
+  public Vec3 toEulerXYZ(Vec3 out) {
+    float r00 = 1 - 2*(y*y + z*z);
+    float r10 = 2*(x*y + w*z);
+    float r20 = 2*(x*z - w*y);
+    float r21 = 2*(y*z + w*x);
+    float r22 = 1 - 2*(x*x + y*y);
+
+    // rotateAroundY is sign flipped, so row 2 reads (sin y, cos y sin x, cos y cos x)
+    // atan2 rather than asin keeps y accurate near +-90
+    float cosY = (float)Math.sqrt(r21*r21 + r22*r22);
+    float ax, ay, az;
+    ay = (float)Math.atan2(r20, cosY);
+    if (cosY > 1e-6f) {
+      ax = (float)Math.atan2(r21, r22);
+      az = (float)Math.atan2(r10, r00);
+    } else {
+      // Gimbal lock: fold everything into x
+      float r11 = 1 - 2*(x*x + z*z);
+      float r12 = 2*(y*z - w*x);
+      ax = (float)Math.atan2(-r12, r11);
+      az = 0;
+    }
+    if (Math.abs(az) > Math.PI/2) {
+      // (x, y, z) and (x+180, 180-y, z+180) describe the same rotation
+      ax += (ax > 0) ? -Math.PI : Math.PI;
+      ay = (float)((ay > 0) ? Math.PI - ay : -Math.PI - ay);
+      az += (az > 0) ? -Math.PI : Math.PI;
+    }
+    return out.set(
+      (float)Math.toDegrees(ax),
+      (float)Math.toDegrees(ay),
+      (float)Math.toDegrees(az)
+    );
+  }
+
+  /**
+   * Sets this quaternion to the roll-free rotation (yaw about Y, then pitch
+   * about X) that turns local forward (-Z) onto the given direction.
+   * Equivalent to SetLocalRotation(pitch, yaw, 0) but built from half-angle
+   * identities rather than atan2.
+   */
+  public Quat setLookDirection(Vec3 forward) {
+    float fx = forward.x, fy = forward.y, fz = forward.z;
+    float len = (float)Math.sqrt(fx*fx + fy*fy + fz*fz);
+    if (len < 1e-8f) {
+      return setIdentity();
+    }
+    fx /= len; fy /= len; fz /= len;
+    float h = (float)Math.sqrt(fx*fx + fz*fz);   // cos(pitch)
+
+    // yaw: cos = -fz/h, sin = fx/h
+    float cosYaw = (h < 1e-8f) ? 1f : -fz/h;
+    float cyh = (float)Math.sqrt(Math.max(0f, (1 + cosYaw) * 0.5f));
+    float syh = (float)Math.sqrt(Math.max(0f, (1 - cosYaw) * 0.5f));
+    if (fx < 0) syh = -syh;
+
+    // pitch: cos = h, sin = fy
+    float cph = (float)Math.sqrt(Math.max(0f, (1 + h) * 0.5f));
+    float sph = (float)Math.sqrt(Math.max(0f, (1 - h) * 0.5f));
+    if (fy < 0) sph = -sph;
+
+    // qy(-yaw) x qx(pitch)
+    return set(
+      cyh*sph,
+      -syh*cph,
+      syh*sph,
+      cyh*cph
+    );
+  }
+
+  // out may be v
+  public static Vec3 rotate(Quat q, Vec3 v, Vec3 out) {
+    // v' = v + 2w(u x v) + 2u x (u x v)
+    float tx = 2*(q.y*v.z - q.z*v.y);
+    float ty = 2*(q.z*v.x - q.x*v.z);
+    float tz = 2*(q.x*v.y - q.y*v.x);
+    return out.set(
+      v.x + q.w*tx + (q.y*tz - q.z*ty),
+      v.y + q.w*ty + (q.z*tx - q.x*tz),
+      v.z + q.w*tz + (q.x*ty - q.y*tx)
+    );
+  }
+
+  // rotates v by the inverse (conjugate) of q; out may be v
+  public static Vec3 rotateInverse(Quat q, Vec3 v, Vec3 out) {
+    float tx = 2*(-q.y*v.z + q.z*v.y);
+    float ty = 2*(-q.z*v.x + q.x*v.z);
+    float tz = 2*(-q.x*v.y + q.y*v.x);
+    return out.set(
+      v.x + q.w*tx + (-q.y*tz + q.z*ty),
+      v.y + q.w*ty + (-q.z*tx + q.x*tz),
+      v.z + q.w*tz + (-q.x*ty + q.y*tx)
+    );
+  }
+
+  public String toString() {
+    return "("+x+","+y+","+z+","+w+")";
+  }
+
+} // end of Quat class
@@ -37,6 +37,17 @@ public final class Vec3 {
     this.z = v.z;
   }
 
+  public Vec3 set(float x, float y, float z) {
+    this.x = x;
+    this.y = y;
+    this.z = z;
+    return this;
+  }
+
+  public Vec3 set(Vec3 v) {
+    return set(v.x, v.y, v.z);
+  }
+
   public float length() {
     return magnitude();
   }
@@ -65,6 +76,16 @@ public final class Vec3 {
     float mag = magnitude(v);   // fails if mag = 0
     return new Vec3(v.x/mag, v.y/mag, v.z/mag);
   }
+
+  // out may be v; unlike normalize(Vec3), tiny vectors collapse to zero
+  public static Vec3 normalizeInto(Vec3 v, Vec3 out) {
+    float mag = magnitude(v);
+    if (mag < 1e-8f) {
+      return out.set(0f, 0f, 0f);
+    }
+    float inv = 1.0f / mag;
+    return out.set(v.x*inv, v.y*inv, v.z*inv);
+  }
   
   public void add(Vec3 v) {
     x += v.x;
@@ -75,6 +96,10 @@ public final class Vec3 {
   public static Vec3 add(Vec3 a, Vec3 b) {
     return new Vec3(a.x+b.x, a.y+b.y, a.z+b.z);
   }
+
+  public static Vec3 add(Vec3 a, Vec3 b, Vec3 out) {
+    return out.set(a.x+b.x, a.y+b.y, a.z+b.z);
+  }
     
   public void subtract(Vec3 v) {
     x -= v.x;
@@ -85,6 +110,10 @@ public final class Vec3 {
   public static Vec3 subtract(Vec3 a, Vec3 b) {
     return new Vec3(a.x-b.x, a.y-b.y, a.z-b.z);
   } 
+
+  public static Vec3 subtractInto(Vec3 a, Vec3 b, Vec3 out) {
+    return out.set(a.x-b.x, a.y-b.y, a.z-b.z);
+  }
   
   public float dotProduct(Vec3 v) {
     return dotProduct(this, v);
@@ -103,17 +132,33 @@ public final class Vec3 {
   public static Vec3 multiply(Vec3 v, float f) {
     return new Vec3(v.x*f, v.y*f, v.z*f);
   }
+
+  public static Vec3 multiplyInto(Vec3 v, float f, Vec3 out) {
+    return out.set(v.x*f, v.y*f, v.z*f);
+  }
   
   public static Vec3 crossProduct(Vec3 a, Vec3 b) {
     return new Vec3(a.y*b.z-a.z*b.y, a.z*b.x-a.x*b.z, a.x*b.y-a.y*b.x);
   }
 
+  // out may be a or b
+  public static Vec3 crossProductInto(Vec3 a, Vec3 b, Vec3 out) {
+    return out.set(a.y*b.z-a.z*b.y, a.z*b.x-a.x*b.z, a.x*b.y-a.y*b.x);
+  }
+
   public float distance(Vec3 other) {
     float dx = this.x - other.x;
     float dy = this.y - other.y;
     float dz = this.z - other.z;
     return (float)Math.sqrt(dx*dx + dy*dy + dz*dz);
   }
+
+  public float distanceSquared(Vec3 other) {
+    float dx = this.x - other.x;
+    float dy = this.y - other.y;
+    float dz = this.z - other.z;
+    return dx*dx + dy*dy + dz*dz;
+  }
  
   public String toString() {
     return "("+x+","+y+","+z+")";
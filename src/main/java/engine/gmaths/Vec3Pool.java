@@ -0,0 +1,61 @@
+package engine.gmaths;
+
+/**
+ * A per-thread stack of scratch Vec3s for static helpers that need
+ * temporaries but have no object to keep them on.
+ *
+ * Usage:
+ *   Vec3Pool pool = Vec3Pool.get();
+ *   int mark = pool.mark();
+ *   try {
+ *     Vec3 tmp = pool.take();
+ *     ...
+ *   } finally {
+ *     pool.release(mark);
+ *   }
+ *
+ * Vectors handed out by take() must not escape the try block.
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class Vec3Pool {
+
+  private static final ThreadLocal<Vec3Pool> LOCAL = ThreadLocal.withInitial(Vec3Pool::new);
+
+  private Vec3[] stack = new Vec3[16];
+  private int top = 0;
+
+  private Vec3Pool() {
+  }
+
+  public static Vec3Pool get() {
+    return LOCAL.get();
+  }
+
+  public int mark() {
+    return top;
+  }
+
+  // returns a zeroed vector owned by the pool
+  public Vec3 take() {
+    if (top == stack.length) {
+      Vec3[] grown = new Vec3[stack.length * 2];
+      System.arraycopy(stack, 0, grown, 0, stack.length);
+      stack = grown;
+    }
+    Vec3 v = stack[top];
+    if (v == null) {
+      v = new Vec3();
+      stack[top] = v;
+    }
+    top++;
+    return v.set(0f, 0f, 0f);
+  }
+
+  public void release(int mark) {
+    top = mark;
+  }
+
+} // end of Vec3Pool class
@@ -0,0 +1,145 @@
+package engine.loaders;
+
+import com.jogamp.opengl.GL3;
+
+import engine.data.ComponentSpec;
+import engine.data.GameObjectSpec;
+import engine.data.MeshRendererSpec;
+import engine.data.TransformSpec;
+import engine.ecs.CoreComponents;
+import engine.ecs.EntityWorld;
+import engine.ecs.RenderMesh;
+import engine.gmaths.Mat4;
+import engine.gmaths.Quat;
+import engine.rendering.MeshLibrary;
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+
+/**
+ * Instantiates a YAML GameObject hierarchy into an EntityWorld.
+ *
+ * The root becomes one entity with Position, Rotation, Scale and
+ * LocalToWorld, so systems can move it. Every descendant with a
+ * MeshRenderer becomes an entity parented directly to the root, with its
+ * chain of local transforms baked into a fixed LocalToParent; descendants
+ * cannot animate independently. Only Transform and MeshRenderer specs are
+ * supported; others are skipped with a warning.
+ *
+ * Meshes and materials are shared per (mesh, material) path pair, so
+ * instantiating the same spec many times loads each material once.
+ */
+public class EntityLoader {
+
+    private static final float[] ZERO = {0, 0, 0};
+    private static final float[] ONE = {1, 1, 1};
+
+    public static int Load(GameObjectSpec spec, GL3 gl, EntityWorld world) {
+        warnUnsupported(spec);
+        TransformSpec transform = findTransform(spec);
+        float[] position = vec3(transform == null ? null : transform.position, ZERO);
+        float[] scale = vec3(transform == null ? null : transform.scale, ONE);
+        Quat rotation = rotation(transform);
+        float[] matrix = new float[16];
+        new Mat4().setTRS(position[0], position[1], position[2], rotation, scale[0], scale[1], scale[2])
+            .copyTo(matrix, 0);
+
+        int root = world.create(CoreComponents.POSITION, CoreComponents.ROTATION,
+                                CoreComponents.SCALE, CoreComponents.LOCAL_TO_WORLD);
+        world.set(root, CoreComponents.POSITION, position);
+        world.set(root, CoreComponents.ROTATION, rotation.x, rotation.y, rotation.z, rotation.w);
+        world.set(root, CoreComponents.SCALE, scale);
+        world.set(root, CoreComponents.LOCAL_TO_WORLD, matrix);
+
+        MeshRendererSpec meshRenderer = findMeshRenderer(spec);
+        if (meshRenderer != null) {
+            world.add(root, CoreComponents.RENDER_MESH);
+            world.set(root, CoreComponents.RENDER_MESH, share(meshRenderer, gl, world));
+        }
+
+        if (spec.children != null) {
+            Mat4 rootWorld = new Mat4().setFrom(matrix, 0);
+            Mat4 identity = new Mat4().setIdentity();
+            for (GameObjectSpec child : spec.children) {
+                loadDescendant(child, identity, root, rootWorld, gl, world);
+            }
+        }
+
+        System.out.println("[EntityLoader]: Instantiated entity " + root + " from '" + spec.name + "'");
+        return root;
+    }
+
+    // toParent maps the parent's space to the root's; rootWorld is the root's initial world matrix
+    private static void loadDescendant(GameObjectSpec spec, Mat4 toParent, int root, Mat4 rootWorld,
+                                       GL3 gl, EntityWorld world) {
+        warnUnsupported(spec);
+        TransformSpec transform = findTransform(spec);
+        float[] p = vec3(transform == null ? null : transform.position, ZERO);
+        float[] s = vec3(transform == null ? null : transform.scale, ONE);
+        Mat4 local = new Mat4().setTRS(p[0], p[1], p[2], rotation(transform), s[0], s[1], s[2]);
+        Mat4 toRoot = Mat4.multiply(toParent, local);
+
+        MeshRendererSpec meshRenderer = findMeshRenderer(spec);
+        if (meshRenderer != null) {
+            int entity = world.create(CoreComponents.PARENT, CoreComponents.LOCAL_TO_PARENT,
+                                      CoreComponents.LOCAL_TO_WORLD, CoreComponents.RENDER_MESH);
+            float[] matrix = new float[16];
+            world.set(entity, CoreComponents.PARENT, root);
+            toRoot.copyTo(matrix, 0);
+            world.set(entity, CoreComponents.LOCAL_TO_PARENT, matrix);
+            Mat4.multiply(rootWorld, toRoot).copyTo(matrix, 0);
+            world.set(entity, CoreComponents.LOCAL_TO_WORLD, matrix);
+            world.set(entity, CoreComponents.RENDER_MESH, share(meshRenderer, gl, world));
+        }
+
+        if (spec.children != null) {
+            for (GameObjectSpec child : spec.children) {
+                loadDescendant(child, toRoot, root, rootWorld, gl, world);
+            }
+        }
+    }
+
+    private static int share(MeshRendererSpec spec, GL3 gl, EntityWorld world) {
+        return world.share(spec.mesh + "|" + spec.material, () ->
+            new RenderMesh(MeshLibrary.Load(spec.mesh, gl), MaterialLoader.Load(gl, spec.material)));
+    }
+
+    private static float[] vec3(float[] values, float[] fallback) {
+        return (values != null && values.length == 3) ? values : fallback;
+    }
+
+    private static Quat rotation(TransformSpec transform) {
+        Quat q = new Quat();
+        if (transform != null && transform.rotation != null && transform.rotation.length == 3) {
+            q.setFromEulerXYZ(transform.rotation[0], transform.rotation[1], transform.rotation[2]);
+        }
+        return q;
+    }
+
+    private static TransformSpec findTransform(GameObjectSpec spec) {
+        return (TransformSpec) findSpec(spec, TransformSpec.class);
+    }
+
+    private static MeshRendererSpec findMeshRenderer(GameObjectSpec spec) {
+        return (MeshRendererSpec) findSpec(spec, MeshRendererSpec.class);
+    }
+
+    private static ComponentSpec findSpec(GameObjectSpec spec, Class<? extends ComponentSpec> type) {
+        if (spec.components == null) return null;
+        for (ComponentSpec c : spec.components) {
+            if (type.isInstance(c)) return c;
+        }
+        return null;
+    }
+
+    private static void warnUnsupported(GameObjectSpec spec) {
+        if (spec.components == null) return;
+        for (ComponentSpec c : spec.components) {
+            if (!(c instanceof TransformSpec) && !(c instanceof MeshRendererSpec)) {
+                System.err.println("[EntityLoader]: " + c.getClass().getSimpleName()
+                    + " on '" + spec.name + "' is not supported on entities, skipped");
+            }
+        }
+    }
+}
@@ -15,10 +15,16 @@ jbala1@sheffield.ac.uk
 public class GameObjectLoader {
 
     public static GameObject Load(GameObjectSpec gameObjSpec, GL3 gl) {
+        return Load(gameObjSpec, gl, false);
+    }
+
+    // Children of a static object are static too
+    private static GameObject Load(GameObjectSpec gameObjSpec, GL3 gl, boolean parentStatic) {
 
         GameObject newGameObj = new GameObject();
 
         newGameObj.setName(gameObjSpec.name);
+        newGameObj.setStatic(parentStatic || gameObjSpec.isStatic);
         if (gameObjSpec.id != null) {
             newGameObj.setId(gameObjSpec.id);
         }
@@ -34,7 +40,7 @@ public class GameObjectLoader {
         // RECURSIVELY load children
         if (gameObjSpec.children != null) {
             for (GameObjectSpec childSpec : gameObjSpec.children) {
-                GameObject child = Load(childSpec, gl);  // Recursive call
+                GameObject child = Load(childSpec, gl, newGameObj.isStatic());  // Recursive call
                 newGameObj.addChild(child);
                 System.out.println("[GameObjectLoader]: Added child '" + child.getName() + 
                     "' to parent '" + newGameObj.getName() + "'");
@@ -6,6 +6,7 @@ import com.jogamp.opengl.util.texture.Texture;
 import engine.data.MaterialSpec;
 import engine.gmaths.Vec3;
 import engine.rendering.Material;
+import engine.rendering.Shader;
 import engine.rendering.TextureLibrary;
 
 import org.yaml.snakeyaml.Yaml;
@@ -15,6 +16,7 @@ import org.yaml.snakeyaml.constructor.Constructor;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -24,7 +26,18 @@ jbala1@sheffield.ac.uk
 */
 
 public class MaterialLoader {
+
+    // Instanceable materials are loaded once per path and shared, so the
+    // renderers using them can be drawn together; MeshRenderer.getMaterial
+    // copies one before a script changes it for a single object
+    private static final Map<String, Material> shared = new HashMap<>();
+
     public static Material Load(GL3 gl, String yamlPath) {
+        Material cached = shared.get(yamlPath);
+        if (cached != null) {
+            return cached;
+        }
+
         try (InputStream input = Files.newInputStream(Paths.get(yamlPath))) {
 
             // Parse YAML into MaterialSpec
@@ -108,7 +121,19 @@ public class MaterialLoader {
             if (spec.transparent != null) {
                 material.setTransparent(spec.transparent);
             }
-            
+
+            // --- INSTANCING ---
+            // Uses the "_instanced" variant of the vertex shader when one exists
+            if (!Boolean.FALSE.equals(spec.instancing)) {
+                String instancedVertex = spec.vertex.replace(".vert", "_instanced.vert");
+                if (!instancedVertex.equals(spec.vertex) && Files.exists(Paths.get(instancedVertex))) {
+                    material.setInstancedShader(new Shader(gl, instancedVertex, spec.fragment));
+                }
+            }
+            if (material.supportsInstancing()) {
+                material.setShared(true);
+                shared.put(yamlPath, material);
+            }
 
             return material;
 
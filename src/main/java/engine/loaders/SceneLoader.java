@@ -8,6 +8,7 @@ import com.jogamp.opengl.GL3;
 
 import engine.data.GameObjectSpec;
 import engine.data.SceneSpec;
+import engine.ecs.EntityWorld;
 import engine.rendering.Material;
 import engine.scene.Scene;
 import engine.scene.Skybox;
@@ -42,14 +43,30 @@ public class SceneLoader {
 
             System.out.println("[SceneLoader] Instantiated Scene: " + scene.getName());
 
+            if (spec.parallelTransforms) {
+                int threshold = (spec.parallelTransformThreshold != null)
+                    ? spec.parallelTransformThreshold
+                    : Scene.DEFAULT_PARALLEL_TRANSFORM_THRESHOLD;
+                scene.setParallelTransformUpdate(true, threshold);
+                System.out.println("[SceneLoader] Parallel transform updates above " + threshold + " transforms");
+            }
+
             // Load GameObjects (ComponentSpecs are already deserialized and typed)
             for (GameObjectSpec gameObjectSpec : spec.gameObjects) {
                 GameObject loadedGameObject = GameObjectLoader.Load(gameObjectSpec, gl);
-                loadedGameObject.setScene(scene); // Set scene reference
-                scene.AddGameObject(loadedGameObject);
+                scene.AddGameObject(loadedGameObject); // Sets the scene reference and indexes ids
                 System.out.println("[SceneLoader] Added GameObject: " + loadedGameObject.getName());
             }
 
+            // Load ECS entities (if specified)
+            if (spec.entities != null && !spec.entities.isEmpty()) {
+                EntityWorld world = scene.getOrCreateEntityWorld();
+                for (GameObjectSpec entitySpec : spec.entities) {
+                    EntityLoader.Load(entitySpec, gl, world);
+                }
+                System.out.println("[SceneLoader] Instantiated " + spec.entities.size() + " entity prefabs");
+            }
+
             // Load Skybox (if specified)
             if (spec.skybox != null && !spec.skybox.isEmpty()) {
                 Material skyMaterial = MaterialLoader.Load(gl, spec.skybox);
@@ -37,6 +37,13 @@ public class BezierCurve{
      * Q(u) = P0(1-u)^3 + P1.3u(1-u)^2 + P2.3u^2(1-u) + P3.u^3
      */
     public Vec3 evaluate(float u) {
+        return evaluate(u, new Vec3());
+    }
+
+    /**
+     * Evaluate point on curve at parameter u [0, 1], writing into out
+     */
+    public Vec3 evaluate(float u, Vec3 out) {
         float u2 = u * u;
         float u3 = u2 * u;
         float oneMinusU = 1.0f - u;
@@ -49,12 +56,11 @@ public class BezierCurve{
         float b2 = 3.0f * u2 * oneMinusU;
         float b3 = u3;
         
-        Vec3 result = new Vec3();
-        result.x = b0 * p0.x + b1 * p1.x + b2 * p2.x + b3 * p3.x;
-        result.y = b0 * p0.y + b1 * p1.y + b2 * p2.y + b3 * p3.y;
-        result.z = b0 * p0.z + b1 * p1.z + b2 * p2.z + b3 * p3.z;
+        out.x = b0 * p0.x + b1 * p1.x + b2 * p2.x + b3 * p3.x;
+        out.y = b0 * p0.y + b1 * p1.y + b2 * p2.y + b3 * p3.y;
+        out.z = b0 * p0.z + b1 * p1.z + b2 * p2.z + b3 * p3.z;
         
-        return result;
+        return out;
     }
 
     /**
@@ -65,22 +71,29 @@ public class BezierCurve{
      *       c = -3P0 + 3P1
      */
     public Vec3 tangent(float u) {
-        // Calculate coefficients
-        Vec3 a = Vec3.add(Vec3.add(Vec3.multiply(p0, -1), Vec3.multiply(p1, 3)), 
-                         Vec3.add(Vec3.multiply(p2, -3), p3));
-        Vec3 b = Vec3.add(Vec3.multiply(p0, 3), 
-                         Vec3.add(Vec3.multiply(p1, -6), Vec3.multiply(p2, 3)));
-        Vec3 c = Vec3.add(Vec3.multiply(p0, -3), Vec3.multiply(p1, 3));
-        
+        return tangent(u, new Vec3());
+    }
+
+    /**
+     * Evaluate tangent at parameter u, writing into out
+     */
+    public Vec3 tangent(float u, Vec3 out) {
         float u2 = u * u;
         
-        // Q'(u) = 3au^2 + 2bu + c
-        Vec3 result = new Vec3();
-        result.x = 3 * a.x * u2 + 2 * b.x * u + c.x;
-        result.y = 3 * a.y * u2 + 2 * b.y * u + c.y;
-        result.z = 3 * a.z * u2 + 2 * b.z * u + c.z;
+        // Q'(u) = 3au^2 + 2bu + c, one axis at a time
+        out.x = tangentAxis(p0.x, p1.x, p2.x, p3.x, u, u2);
+        out.y = tangentAxis(p0.y, p1.y, p2.y, p3.y, u, u2);
+        out.z = tangentAxis(p0.z, p1.z, p2.z, p3.z, u, u2);
         
-        return result;
+        return out;
+    }
+
+    private static float tangentAxis(float q0, float q1, float q2, float q3, float u, float u2) {
+        // Calculate coefficients
+        float a = -q0 + 3 * q1 - 3 * q2 + q3;
+        float b = 3 * q0 - 6 * q1 + 3 * q2;
+        float c = -3 * q0 + 3 * q1;
+        return 3 * a * u2 + 2 * b * u + c;
     }
 
     /**
@@ -90,6 +103,13 @@ public class BezierCurve{
         return Vec3.normalize(tangent(u));
     }
 
+    /**
+     * Get normalized tangent at parameter u, writing into out
+     */
+    public Vec3 tangentNormalized(float u, Vec3 out) {
+        return Vec3.normalizeInto(tangent(u, out), out);
+    }
+
     /**
      * Get tangent at start of curve (u=0)
      * Q'(0) = 3(P1 - P0)
@@ -0,0 +1,132 @@
+package engine.rendering;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL3;
+
+import engine.components.Light;
+import engine.gmaths.Mat4;
+import engine.gmaths.Vec3;
+
+/**
+ * The two uniform buffers every scene shader shares: per-frame camera
+ * data and the active lights. Both are filled once per frame and bound
+ * at fixed binding points, which Shader attaches its blocks to when it
+ * links, so a draw only has to upload its model matrix and material.
+ *
+ * Layouts follow std140 and must match the blocks in the shaders:
+ *
+ *   layout(std140) uniform FrameData {     // binding 0
+ *       mat4 view;                          //   0
+ *       mat4 projection;                    //  64
+ *       mat4 viewProjection;                // 128
+ *       vec3 viewPos;                       // 192
+ *       float timeOfDay;                    // 204
+ *   } frame;                                // 208 bytes
+ *
+ *   struct Light {                          // 96 bytes
+ *       vec3 position;  float intensity;    //   0
+ *       vec3 ambient;   float constant;     //  16
+ *       vec3 diffuse;   float linear;       //  32
+ *       vec3 specular;  float quadratic;    //  48
+ *       vec3 direction; float cutOff;       //  64
+ *       int type;       float outerCutOff;  //  80
+ *   };
+ *   layout(std140) uniform LightData {     // binding 1
+ *       Light lights[MAX_LIGHTS];           //   0
+ *       int numActiveLights;                // 768
+ *   };                                      // 784 bytes
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class FrameUniforms {
+
+    public static final String FRAME_BLOCK = "FrameData";
+    public static final String LIGHT_BLOCK = "LightData";
+    public static final int FRAME_BINDING = 0;
+    public static final int LIGHT_BINDING = 1;
+
+    private static final int FRAME_SIZE = 208;
+    private static final int LIGHT_STRIDE = 96;
+    private static final int LIGHT_COUNT_OFFSET = LightSnapshot.MAX_LIGHTS * LIGHT_STRIDE;
+    private static final int LIGHT_SIZE = LIGHT_COUNT_OFFSET + 16;
+
+    private final int[] buffers = new int[2];
+    private final ByteBuffer frameData = Buffers.newDirectByteBuffer(FRAME_SIZE);
+    private final FloatBuffer frameFloats = frameData.asFloatBuffer();
+    private final ByteBuffer lightData = Buffers.newDirectByteBuffer(LIGHT_SIZE);
+    private final Mat4 viewProjection = new Mat4();
+
+    // Uploads this frame's camera and light data; creates the buffers on first use
+    public void update(GL3 gl, Mat4 view, Mat4 projection, Vec3 viewPos, float timeOfDay,
+                       LightSnapshot lights) {
+        if (buffers[0] == 0) create(gl);
+
+        Mat4.multiplyInto(projection, view, viewProjection);
+        view.writeTo(frameFloats, 0);
+        projection.writeTo(frameFloats, 16);
+        viewProjection.writeTo(frameFloats, 32);
+        frameFloats.put(48, viewPos.x);
+        frameFloats.put(49, viewPos.y);
+        frameFloats.put(50, viewPos.z);
+        frameFloats.put(51, timeOfDay);
+
+        float[] positions = lights.getPositions();
+        float[] directions = lights.getDirections();
+        for (int i = 0; i < lights.size(); i++) {
+            Light light = lights.get(i);
+            int o = i * LIGHT_STRIDE;
+            int p = i * 3;
+            putVec3(o, positions[p], positions[p + 1], positions[p + 2]);
+            lightData.putFloat(o + 12, light.getIntensity());
+            putVec3(o + 16, light.getAmbient());
+            lightData.putFloat(o + 28, light.getConstant());
+            putVec3(o + 32, light.getDiffuse());
+            lightData.putFloat(o + 44, light.getLinear());
+            putVec3(o + 48, light.getSpecular());
+            lightData.putFloat(o + 60, light.getQuadratic());
+            putVec3(o + 64, directions[p], directions[p + 1], directions[p + 2]);
+            lightData.putFloat(o + 76, (float) Math.cos(Math.toRadians(light.getCutOff())));
+            lightData.putInt(o + 80, light.getType().ordinal());
+            lightData.putFloat(o + 84, (float) Math.cos(Math.toRadians(light.getOuterCutOff())));
+        }
+        lightData.putInt(LIGHT_COUNT_OFFSET, lights.size());
+
+        gl.glBindBuffer(GL3.GL_UNIFORM_BUFFER, buffers[0]);
+        gl.glBufferSubData(GL3.GL_UNIFORM_BUFFER, 0, FRAME_SIZE, frameData);
+        gl.glBindBuffer(GL3.GL_UNIFORM_BUFFER, buffers[1]);
+        gl.glBufferSubData(GL3.GL_UNIFORM_BUFFER, 0, LIGHT_SIZE, lightData);
+        gl.glBindBuffer(GL3.GL_UNIFORM_BUFFER, 0);
+    }
+
+    private void putVec3(int offset, Vec3 v) {
+        putVec3(offset, v.x, v.y, v.z);
+    }
+
+    private void putVec3(int offset, float x, float y, float z) {
+        lightData.putFloat(offset, x);
+        lightData.putFloat(offset + 4, y);
+        lightData.putFloat(offset + 8, z);
+    }
+
+    private void create(GL3 gl) {
+        gl.glGenBuffers(2, buffers, 0);
+        gl.glBindBuffer(GL3.GL_UNIFORM_BUFFER, buffers[0]);
+        gl.glBufferData(GL3.GL_UNIFORM_BUFFER, FRAME_SIZE, null, GL3.GL_DYNAMIC_DRAW);
+        gl.glBindBuffer(GL3.GL_UNIFORM_BUFFER, buffers[1]);
+        gl.glBufferData(GL3.GL_UNIFORM_BUFFER, LIGHT_SIZE, null, GL3.GL_DYNAMIC_DRAW);
+        gl.glBindBuffer(GL3.GL_UNIFORM_BUFFER, 0);
+        gl.glBindBufferBase(GL3.GL_UNIFORM_BUFFER, FRAME_BINDING, buffers[0]);
+        gl.glBindBufferBase(GL3.GL_UNIFORM_BUFFER, LIGHT_BINDING, buffers[1]);
+    }
+
+    public void dispose(GL3 gl) {
+        if (buffers[0] != 0) gl.glDeleteBuffers(2, buffers, 0);
+        buffers[0] = 0;
+        buffers[1] = 0;
+    }
+}
@@ -0,0 +1,194 @@
+package engine.rendering;
+
+import com.jogamp.opengl.GL3;
+
+/**
+ * Shadows the GL state the renderer changes most often and drops calls
+ * that would set it to what it already is.
+ *
+ * Tracked: the current program, the bound VAO, the active texture unit
+ * and the texture bound on each unit, GL_BLEND, GL_CULL_FACE and
+ * GL_DEPTH_TEST, the depth mask, the depth function and the blend
+ * function. Everything starts unknown each frame (beginFrame), so GL
+ * calls made elsewhere between frames cannot leave the shadow copy
+ * stale; within a frame, state these methods track must only be
+ * changed through them.
+ *
+ * Issued and avoided calls are counted per frame, so the saving can be
+ * read after rendering or checked against a recording GL.
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class GLStateCache {
+
+    private static final int UNKNOWN = -1;
+    private static final int MAX_TEXTURE_UNITS = 16;
+
+    private static int program = UNKNOWN;
+    private static int vertexArray = UNKNOWN;
+    private static int activeUnit = UNKNOWN;
+    private static final int[] textureTargets = new int[MAX_TEXTURE_UNITS];
+    private static final int[] textures = new int[MAX_TEXTURE_UNITS];
+
+    // 1 enabled, 0 disabled, UNKNOWN
+    private static int blend = UNKNOWN;
+    private static int cullFace = UNKNOWN;
+    private static int depthTest = UNKNOWN;
+    private static int depthMask = UNKNOWN;
+    private static int depthFunc = UNKNOWN;
+    private static int blendSrc = UNKNOWN;
+    private static int blendDst = UNKNOWN;
+
+    private static int issuedCalls = 0;
+    private static int avoidedCalls = 0;
+
+    static {
+        invalidate();
+    }
+
+    private GLStateCache() {} // static-only
+
+    // Forgets all tracked state and starts the per-frame counts from zero
+    public static void beginFrame() {
+        invalidate();
+        issuedCalls = 0;
+        avoidedCalls = 0;
+    }
+
+    // Forgets all tracked state, so the next call of each kind is issued
+    public static void invalidate() {
+        program = UNKNOWN;
+        vertexArray = UNKNOWN;
+        activeUnit = UNKNOWN;
+        forgetTextureBindings();
+        blend = UNKNOWN;
+        cullFace = UNKNOWN;
+        depthTest = UNKNOWN;
+        depthMask = UNKNOWN;
+        depthFunc = UNKNOWN;
+        blendSrc = UNKNOWN;
+        blendDst = UNKNOWN;
+    }
+
+    // For code that binds textures directly, e.g. TextureIO while loading
+    public static void forgetTextureBindings() {
+        activeUnit = UNKNOWN;
+        for (int i = 0; i < MAX_TEXTURE_UNITS; i++) {
+            textureTargets[i] = UNKNOWN;
+            textures[i] = UNKNOWN;
+        }
+    }
+
+    public static void useProgram(GL3 gl, int id) {
+        if (program == id) {
+            avoidedCalls++;
+            return;
+        }
+        gl.glUseProgram(id);
+        program = id;
+        issuedCalls++;
+    }
+
+    public static void bindVertexArray(GL3 gl, int id) {
+        if (vertexArray == id) {
+            avoidedCalls++;
+            return;
+        }
+        gl.glBindVertexArray(id);
+        vertexArray = id;
+        issuedCalls++;
+    }
+
+    // Deleting the bound VAO makes GL fall back to none
+    public static void vertexArrayDeleted(int id) {
+        if (vertexArray == id) vertexArray = 0;
+    }
+
+    public static void activeTexture(GL3 gl, int unit) {
+        if (activeUnit == unit) {
+            avoidedCalls++;
+            return;
+        }
+        gl.glActiveTexture(GL3.GL_TEXTURE0 + unit);
+        activeUnit = unit;
+        issuedCalls++;
+    }
+
+    // Makes unit active and binds the texture to it; units past the tracked range are always bound
+    public static void bindTexture(GL3 gl, int unit, int target, int id) {
+        activeTexture(gl, unit);
+        if (unit < MAX_TEXTURE_UNITS) {
+            if (textureTargets[unit] == target && textures[unit] == id) {
+                avoidedCalls++;
+                return;
+            }
+            textureTargets[unit] = target;
+            textures[unit] = id;
+        }
+        gl.glBindTexture(target, id);
+        issuedCalls++;
+    }
+
+    // GL_BLEND, GL_CULL_FACE and GL_DEPTH_TEST are tracked; other capabilities pass straight through
+    public static void setEnabled(GL3 gl, int capability, boolean enabled) {
+        int wanted = enabled ? 1 : 0;
+        int current;
+        switch (capability) {
+            case GL3.GL_BLEND:      current = blend;     blend = wanted;     break;
+            case GL3.GL_CULL_FACE:  current = cullFace;  cullFace = wanted;  break;
+            case GL3.GL_DEPTH_TEST: current = depthTest; depthTest = wanted; break;
+            default:                current = UNKNOWN;                       break;
+        }
+        if (current == wanted) {
+            avoidedCalls++;
+            return;
+        }
+        if (enabled) gl.glEnable(capability);
+        else gl.glDisable(capability);
+        issuedCalls++;
+    }
+
+    public static void depthMask(GL3 gl, boolean write) {
+        int wanted = write ? 1 : 0;
+        if (depthMask == wanted) {
+            avoidedCalls++;
+            return;
+        }
+        gl.glDepthMask(write);
+        depthMask = wanted;
+        issuedCalls++;
+    }
+
+    public static void depthFunc(GL3 gl, int func) {
+        if (depthFunc == func) {
+            avoidedCalls++;
+            return;
+        }
+        gl.glDepthFunc(func);
+        depthFunc = func;
+        issuedCalls++;
+    }
+
+    public static void blendFunc(GL3 gl, int src, int dst) {
+        if (blendSrc == src && blendDst == dst) {
+            avoidedCalls++;
+            return;
+        }
+        gl.glBlendFunc(src, dst);
+        blendSrc = src;
+        blendDst = dst;
+        issuedCalls++;
+    }
+
+    // State calls passed on to GL since beginFrame
+    public static int getIssuedCalls() {
+        return issuedCalls;
+    }
+
+    // State calls dropped as redundant since beginFrame
+    public static int getAvoidedCalls() {
+        return avoidedCalls;
+    }
+}
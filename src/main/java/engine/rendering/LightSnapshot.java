@@ -0,0 +1,70 @@
+package engine.rendering;
+
+import engine.components.Light;
+import engine.gmaths.Vec3;
+
+/**
+ * The enabled lights of a scene as seen at the start of a frame.
+ *
+ * Scene gathers it once per frame and every draw call reads from it, so
+ * light world positions and directions are resolved once rather than for
+ * each object drawn. The arrays are sized for the shader's light limit
+ * up front and reused every frame.
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class LightSnapshot {
+
+    // Matches the lights[] array size in the shaders
+    public static final int MAX_LIGHTS = 8;
+
+    private final Light[] lights = new Light[MAX_LIGHTS];
+    private final float[] positions = new float[MAX_LIGHTS * 3];
+    private final float[] directions = new float[MAX_LIGHTS * 3];
+    private int count = 0;
+
+    private final Vec3 scratch = new Vec3();
+
+    public void clear() {
+        for (int i = 0; i < count; i++) {
+            lights[i] = null;
+        }
+        count = 0;
+    }
+
+    // Records the light and its current world position and direction; returns false once full
+    public boolean add(Light light) {
+        if (count == MAX_LIGHTS) return false;
+        int o = count * 3;
+        light.getPosition(scratch);
+        positions[o] = scratch.x;
+        positions[o + 1] = scratch.y;
+        positions[o + 2] = scratch.z;
+        light.getDirection(scratch);
+        directions[o] = scratch.x;
+        directions[o + 1] = scratch.y;
+        directions[o + 2] = scratch.z;
+        lights[count++] = light;
+        return true;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public Light get(int i) {
+        return lights[i];
+    }
+
+    // World positions of the lights, three floats per light
+    public float[] getPositions() {
+        return positions;
+    }
+
+    // World forward directions of the lights, three floats per light
+    public float[] getDirections() {
+        return directions;
+    }
+}
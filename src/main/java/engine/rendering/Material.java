@@ -1,6 +1,5 @@
 package engine.rendering;
 
-import engine.components.Light;
 import engine.gmaths.*;
 import java.util.HashMap;
 import com.jogamp.opengl.GL3;
@@ -18,14 +17,55 @@ import java.util.Map;
  */
 public class Material {
     private final Shader shader;
+    // Variant of the shader that reads the model matrix per instance from
+    // vertex attributes 3-6; null when this material is never instanced
+    private Shader instancedShader;
+    // The variant uniforms go to, chosen by the last use call
+    private Shader active;
     private final Map<String, Object> uniforms = new HashMap<>();
     private final Map<String, Texture> textures = new HashMap<>();
     private boolean doubleSided = false;
     private boolean transparent = false;
     private String name;
+    // Loaded once and used by several renderers; see MeshRenderer.getMaterial
+    private boolean shared = false;
+
+    // Small per-material number for RenderQueue sort keys
+    private static int nextSortId = 0;
+    private final int sortId = nextSortId++;
 
     public Material(GL3 gl, String vertexShaderPath, String fragmentShaderPath) {
         this.shader = new Shader(gl, vertexShaderPath, fragmentShaderPath);
+        this.active = shader;
+    }
+
+    // An unshared copy of other: same shaders and textures, its own uniform values
+    public Material(Material other) {
+        this.shader = other.shader;
+        this.instancedShader = other.instancedShader;
+        this.active = shader;
+        for (Map.Entry<String, Object> entry : other.uniforms.entrySet()) {
+            uniforms.put(entry.getKey(), copyValue(entry.getValue()));
+        }
+        this.textures.putAll(other.textures);
+        this.doubleSided = other.doubleSided;
+        this.transparent = other.transparent;
+        this.name = other.name;
+    }
+
+    // Vectors are mutable, so the copy gets its own
+    private static Object copyValue(Object value) {
+        if (value instanceof Vec3) return new Vec3((Vec3) value);
+        if (value instanceof Vec2) return new Vec2((Vec2) value);
+        return value;
+    }
+
+    public void setShared(boolean shared) {
+        this.shared = shared;
+    }
+
+    public boolean isShared() {
+        return shared;
     }
 
     public void setDoubleSided(boolean doubleSided) {
@@ -51,14 +91,33 @@ public class Material {
         return transparent;
     }
 
+    public int getSortId() {
+        return sortId;
+    }
+
     public Shader getShader() {
         return shader;
     }
 
+    public void setInstancedShader(Shader instancedShader) {
+        this.instancedShader = instancedShader;
+    }
+
+    public Shader getInstancedShader() {
+        return instancedShader;
+    }
+
+    // Transparent draws stay one at a time so they can be sorted back to front
+    public boolean supportsInstancing() {
+        return instancedShader != null && !transparent;
+    }
+
     public boolean hasUniform(String name) {
         return uniforms.containsKey(name);
     }
 
+    // Changes every renderer drawing with this material; a shared material should be
+    // changed through MeshRenderer.getMaterial, which gives the renderer its own copy first
     public void setUniform(String name, Object value) {
         uniforms.put(name, value);
     }
@@ -67,6 +126,7 @@ public class Material {
         return uniforms.get(name);
     }
 
+    // As setUniform, affects every renderer drawing with this material
     public void setTexture(String name, Texture texture) {
         if (texture != null) textures.put(name, texture);
     }
@@ -82,14 +142,14 @@ public class Material {
 
         // Disable culling if doublesided
         if (doubleSided) {
-            gl.glDisable(GL3.GL_CULL_FACE);
+            GLStateCache.setEnabled(gl, GL3.GL_CULL_FACE, false);
         }
 
         // Disable depth writes if transparent
         if (transparent) {
-            gl.glEnable(GL3.GL_BLEND);
-            gl.glBlendFunc(GL3.GL_SRC_ALPHA, GL3.GL_ONE_MINUS_SRC_ALPHA);
-            gl.glDepthMask(false); 
+            GLStateCache.setEnabled(gl, GL3.GL_BLEND, true);
+            GLStateCache.blendFunc(gl, GL3.GL_SRC_ALPHA, GL3.GL_ONE_MINUS_SRC_ALPHA);
+            GLStateCache.depthMask(gl, false);
         }
 
         // set scalar/vector uniforms
@@ -98,21 +158,21 @@ public class Material {
             Object value = entry.getValue();
 
             if(value instanceof Integer){
-                shader.setInt(gl, name, ((Integer) value).intValue());
+                active.setInt(gl, name, ((Integer) value).intValue());
             } else if (value instanceof Number) {
-                shader.setFloat(gl, name, ((Number) value).floatValue());                
+                active.setFloat(gl, name, ((Number) value).floatValue());                
             }else if (value instanceof Vec2) {
-                shader.setFloat(gl, name, ((Vec2) value).x, ((Vec2) value).y);
+                active.setFloat(gl, name, ((Vec2) value).x, ((Vec2) value).y);
             } else if (value instanceof Vec3) {
-                shader.setVec3(gl, name, (Vec3) value);
+                active.setVec3(gl, name, (Vec3) value);
             } else if (value instanceof List<?>) {
                 List<?> list = (List<?>) value;
                 if (list.size() == 2)
-                    shader.setFloat(gl, name, toFloat(list.get(0)), toFloat(list.get(1)));
+                    active.setFloat(gl, name, toFloat(list.get(0)), toFloat(list.get(1)));
                 else if (list.size() == 3)
-                    shader.setFloat(gl, name, toFloat(list.get(0)), toFloat(list.get(1)), toFloat(list.get(2)));
+                    active.setFloat(gl, name, toFloat(list.get(0)), toFloat(list.get(1)), toFloat(list.get(2)));
                 else if (list.size() == 4)
-                    shader.setFloat(gl, name, toFloat(list.get(0)), toFloat(list.get(1)), toFloat(list.get(2)), toFloat(list.get(3)));
+                    active.setFloat(gl, name, toFloat(list.get(0)), toFloat(list.get(1)), toFloat(list.get(2)), toFloat(list.get(3)));
             }
         }
 
@@ -132,16 +192,15 @@ public class Material {
         for (var entry : textures.entrySet()) {
             Texture tex = entry.getValue();
             if (tex == null) continue;
-            gl.glActiveTexture(GL3.GL_TEXTURE0 + unit);
-            tex.bind(gl);
-            shader.setInt(gl, entry.getKey(), unit); // e.g. "material.diffuseMap" = 0
+            GLStateCache.bindTexture(gl, unit, tex.getTarget(), tex.getTextureObject());
+            active.setInt(gl, entry.getKey(), unit); // e.g. "material.diffuseMap" = 0
 
             // set wrap mode according to tiling
             if (tileU != 1.0f || tileV != 1.0f) {
                 gl.glTexParameteri(GL3.GL_TEXTURE_2D, GL3.GL_TEXTURE_WRAP_S, GL3.GL_REPEAT);
                 gl.glTexParameteri(GL3.GL_TEXTURE_2D, GL3.GL_TEXTURE_WRAP_T, GL3.GL_REPEAT);
             } else {
-                shader.setFloat(gl, "tiling", 1.0f, 1.0f);
+                active.setFloat(gl, "tiling", 1.0f, 1.0f);
                 gl.glTexParameteri(GL3.GL_TEXTURE_2D, GL3.GL_TEXTURE_WRAP_S, GL3.GL_CLAMP_TO_EDGE);
                 gl.glTexParameteri(GL3.GL_TEXTURE_2D, GL3.GL_TEXTURE_WRAP_T, GL3.GL_CLAMP_TO_EDGE);
             }
@@ -150,52 +209,9 @@ public class Material {
         }
     }
 
-    public void setLightsUniform(GL3 gl, List<Light> lights) {
-        int numLights = Math.min(lights.size(), 8); // Max 8 lights
-        shader.setInt(gl, "numActiveLights", numLights);
-        for (int i = 0; i < numLights; i++) {
-            Light light = lights.get(i);
-            String prefix = "lights[" + i + "].";
-            
-            shader.setVec3(gl, prefix + "position", light.getPosition());
-            // Send raw color components; shader will scale by light.intensity
-            shader.setVec3(gl, prefix + "ambient", light.getAmbient());
-            shader.setVec3(gl, prefix + "diffuse", light.getDiffuse());
-            shader.setVec3(gl, prefix + "specular", light.getSpecular());
-            shader.setFloat(gl, prefix + "intensity", light.getIntensity());
-            
-            shader.setInt(gl, prefix + "type", light.getType().ordinal());
-            
-            // Attenuation
-            shader.setFloat(gl, prefix + "constant", light.getConstant());
-            shader.setFloat(gl, prefix + "linear", light.getLinear());
-            shader.setFloat(gl, prefix + "quadratic", light.getQuadratic());
-            
-            // Spotlight
-            // Always set a direction so the shader can use it for spot/directional lights
-            shader.setVec3(gl, prefix + "direction", light.getDirection());
-
-            if (light.getType() == Light.LightType.SPOT) {
-                shader.setVec3(gl, prefix + "direction", light.getDirection());
-                shader.setFloat(gl, prefix + "cutOff", 
-                    (float)Math.cos(Math.toRadians(light.getCutOff())));
-                shader.setFloat(gl, prefix + "outerCutOff", 
-                    (float)Math.cos(Math.toRadians(light.getOuterCutOff())));
-            }
-        }
-    }
-
-    public void setTransformUniforms(GL3 gl, 
-        Mat4 modelMatrix, 
-        Mat4 viewMatrix, 
-        Mat4 projectionMatrix, 
-        Vec3 viewPos) 
-    {
-        Mat4 mvpMatrix = Mat4.multiply(projectionMatrix, Mat4.multiply(viewMatrix, modelMatrix));
-        
-        shader.setFloatArray(gl, "model", modelMatrix.toFloatArrayForGLSL());
-        shader.setFloatArray(gl, "mvpMatrix", mvpMatrix.toFloatArrayForGLSL());
-        shader.setVec3(gl, "viewPos", viewPos);
+    // Camera and lights come from the FrameUniforms blocks; only the model matrix is per draw
+    public void setTransformUniforms(GL3 gl, Mat4 modelMatrix) {
+        active.setMat4(gl, "model", modelMatrix);
     }
 
     private float toFloat(Object o) {
@@ -204,17 +220,24 @@ public class Material {
     }
 
     public void useShader(GL3 gl){
+        active = shader;
         shader.use(gl);
     }
 
+    // Binds the instanced variant; the model matrix then comes from the instance buffer
+    public void useInstancedShader(GL3 gl){
+        active = instancedShader;
+        instancedShader.use(gl);
+    }
+
     // Call this after rendering to restore culling
     public void restore(GL3 gl) {
         if (doubleSided) {
-            gl.glEnable(GL3.GL_CULL_FACE);
+            GLStateCache.setEnabled(gl, GL3.GL_CULL_FACE, true);
         }
         if (transparent) {
-            gl.glDisable(GL3.GL_BLEND);
-            gl.glDepthMask(true);
+            GLStateCache.setEnabled(gl, GL3.GL_BLEND, false);
+            GLStateCache.depthMask(gl, true);
         }
     }
 }
@@ -18,22 +18,100 @@ public class Mesh {
   private int[] vertexBufferId = new int[1];
   private int[] vertexArrayId = new int[1];
   private int[] elementBufferId = new int[1];
+  private int[] instanceBufferId = new int[1];  // per-instance model matrices, created on first instanced draw
+  private int instanceCapacity = 0;             // matrices the instance buffer has room for
+  private float[] localBounds = new float[6];  // min x, y, z, max x, y, z of the vertex positions
+  private static int nextSortId = 0;
+  private final int sortId = nextSortId++;     // small per-mesh number for RenderQueue sort keys
   
   public Mesh(GL3 gl, float[] vertices, int[] indices) {
     this.vertices = vertices;
     this.indices = indices;
+    computeBounds();
     fillBuffers(gl);
   }
+
+  // Object-space bounding box as min x, y, z, max x, y, z; do not modify
+  public float[] getLocalBounds() {
+    return localBounds;
+  }
+
+  private void computeBounds() {
+    if (vertices.length < vertexStride) return;
+    for (int k=0; k<3; ++k) {
+      localBounds[k] = Float.POSITIVE_INFINITY;
+      localBounds[k+3] = Float.NEGATIVE_INFINITY;
+    }
+    for (int i=0; i+2<vertices.length; i+=vertexStride) {
+      for (int k=0; k<3; ++k) {
+        localBounds[k] = Math.min(localBounds[k], vertices[i+k]);
+        localBounds[k+3] = Math.max(localBounds[k+3], vertices[i+k]);
+      }
+    }
+  }
+  
+  public float[] getVertices() {
+    return vertices;
+  }
+
+  public int[] getIndices() {
+    return indices;
+  }
+
+  public int getSortId() {
+    return sortId;
+  }
   
   public void render(GL3 gl) {
-    gl.glBindVertexArray(vertexArrayId[0]);
+    bind(gl);
+    draw(gl);
+  }
+
+  // bind once, then draw any number of times (used by RenderQueue)
+  public void bind(GL3 gl) {
+    GLStateCache.bindVertexArray(gl, vertexArrayId[0]);
+  }
+
+  public void draw(GL3 gl) {
     gl.glDrawElements(GL.GL_TRIANGLES, indices.length, GL.GL_UNSIGNED_INT, 0);
-    gl.glBindVertexArray(0);
+  }
+
+  // Draws several index ranges in one call: counts[i] indices starting at
+  // byte offset offsets[i] of the element buffer. Call after bind.
+  public void drawRanges(GL3 gl, IntBuffer counts, PointerBuffer offsets, int ranges) {
+    gl.glMultiDrawElements(GL.GL_TRIANGLES, counts, GL.GL_UNSIGNED_INT, offsets, ranges);
+  }
+
+  // Draws count copies of the mesh, one per column-major mat4 in models
+  // (16 floats each, from position 0). The matrices feed vertex attributes
+  // 3-6, which advance once per instance. Call after bind.
+  public void drawInstanced(GL3 gl, FloatBuffer models, int count) {
+    if (instanceBufferId[0] == 0) createInstanceBuffer(gl);
+    gl.glBindBuffer(GL.GL_ARRAY_BUFFER, instanceBufferId[0]);
+    long bytes = (long)count*16*Float.BYTES;
+    if (count > instanceCapacity) {
+      instanceCapacity = Math.max(count, instanceCapacity*2);
+    }
+    // orphan the old storage so the driver need not wait for earlier draws to finish with it
+    gl.glBufferData(GL.GL_ARRAY_BUFFER, (long)instanceCapacity*16*Float.BYTES, null, GL2ES2.GL_STREAM_DRAW);
+    gl.glBufferSubData(GL.GL_ARRAY_BUFFER, 0, bytes, models);
+    gl.glDrawElementsInstanced(GL.GL_TRIANGLES, indices.length, GL.GL_UNSIGNED_INT, 0, count);
+  }
+
+  private void createInstanceBuffer(GL3 gl) {
+    gl.glGenBuffers(1, instanceBufferId, 0);
+    gl.glBindBuffer(GL.GL_ARRAY_BUFFER, instanceBufferId[0]);
+    // a mat4 attribute takes four consecutive locations, one per column
+    for (int c=0; c<4; ++c) {
+      gl.glVertexAttribPointer(3+c, 4, GL.GL_FLOAT, false, 16*Float.BYTES, c*4*Float.BYTES);
+      gl.glEnableVertexAttribArray(3+c);
+      gl.glVertexAttribDivisor(3+c, 1);
+    }
   }
 
   private void fillBuffers(GL3 gl) {
     gl.glGenVertexArrays(1, vertexArrayId, 0);
-    gl.glBindVertexArray(vertexArrayId[0]);
+    GLStateCache.bindVertexArray(gl, vertexArrayId[0]);
     gl.glGenBuffers(1, vertexBufferId, 0);
     gl.glBindBuffer(GL.GL_ARRAY_BUFFER, vertexBufferId[0]);
     FloatBuffer fb = Buffers.newDirectFloatBuffer(vertices);
@@ -72,7 +150,9 @@ public class Mesh {
   public void dispose(GL3 gl) {
     gl.glDeleteBuffers(1, vertexBufferId, 0);
     gl.glDeleteVertexArrays(1, vertexArrayId, 0);
+    GLStateCache.vertexArrayDeleted(vertexArrayId[0]);
     gl.glDeleteBuffers(1, elementBufferId, 0);
+    if (instanceBufferId[0] != 0) gl.glDeleteBuffers(1, instanceBufferId, 0);
   }
   
 }
@@ -0,0 +1,281 @@
+package engine.rendering;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL3;
+
+import engine.gmaths.Mat4;
+import engine.gmaths.Mat4Batch;
+
+/**
+ * Collects the draws of a frame and submits them in an order that keeps
+ * GL state changes to a minimum.
+ *
+ * Each draw gets a 64-bit sort key. Opaque draws are keyed
+ *   pass (2) | shader (10) | material (12) | mesh (12) | depth (28)
+ * so draws sharing a shader, then a material, then a mesh end up next to
+ * each other, nearest first within a run for early depth rejection.
+ * Transparent draws are keyed
+ *   pass (2) | inverted depth (28) | shader (10) | material (12) | mesh (12)
+ * so they are drawn back to front, as blending requires.
+ *
+ * Depth is the view-space distance along the camera's forward axis,
+ * worked out once per draw as it is added. Keys are sorted with an LSD
+ * radix sort over their bytes, so a frame's sort allocates nothing and
+ * makes no comparisons once the arrays have grown. Submitting changes
+ * the shader, material state or bound VAO only when the key changes.
+ * Camera and light data are read from the FrameUniforms blocks, so a
+ * draw uploads nothing but its model matrix.
+ *
+ * A run of at least MIN_INSTANCES opaque draws with the same mesh and an
+ * instanceable material is drawn with one glDrawElementsInstanced, the
+ * model matrices streamed to the mesh's instance buffer.
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class RenderQueue {
+
+    public static final int PASS_OPAQUE = 0;
+    public static final int PASS_TRANSPARENT = 1;
+
+    private static final int ID_BITS_SHADER = 10;
+    private static final int ID_BITS_MATERIAL = 12;
+    private static final int ID_BITS_MESH = 12;
+    private static final int DEPTH_BITS = 28;
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+
+    // Shorter runs are cheaper drawn one by one than uploaded as instances
+    public static final int MIN_INSTANCES = 4;
+
+    private Mesh[] meshes = new Mesh[256];
+    private Material[] materials = new Material[256];
+    private float[] models = new float[256 * Mat4Batch.STRIDE];
+    private long[] keys = new long[256];
+    private int[] order = new int[256];
+    private long[] keyScratch = new long[256];
+    private int[] orderScratch = new int[256];
+    private final int[] histogram = new int[256];
+    private int count = 0;
+
+    // Third row of the view matrix; its dot product with a world point is view-space z
+    private float viewZx, viewZy, viewZz, viewZw;
+    private final Mat4 model = new Mat4();
+    private FloatBuffer instanceData = Buffers.newDirectFloatBuffer(64 * Mat4Batch.STRIDE);
+    private boolean instancing = true;
+
+    // State changes and draw calls made by the last submit
+    private int shaderChanges, materialChanges, meshChanges;
+    private int drawCalls, instancedDraws;
+
+    // Empties the queue; depths of the draws added next are measured in this view
+    public void begin(Mat4 view) {
+        for (int i = 0; i < count; i++) {
+            meshes[i] = null;
+            materials[i] = null;
+        }
+        count = 0;
+        viewZx = view.get(2, 0);
+        viewZy = view.get(2, 1);
+        viewZz = view.get(2, 2);
+        viewZw = view.get(2, 3);
+    }
+
+    public void add(Mesh mesh, Material material, Mat4 modelMatrix) {
+        int i = reserve();
+        modelMatrix.copyTo(models, i * Mat4Batch.STRIDE);
+        finishAdd(i, mesh, material);
+    }
+
+    // Adds a draw whose model matrix is the 16 floats at src[offset]
+    public void add(Mesh mesh, Material material, float[] src, int offset) {
+        int i = reserve();
+        System.arraycopy(src, offset, models, i * Mat4Batch.STRIDE, Mat4Batch.STRIDE);
+        finishAdd(i, mesh, material);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public void setInstancing(boolean enabled) {
+        instancing = enabled;
+    }
+
+    public boolean isInstancing() {
+        return instancing;
+    }
+
+    private int reserve() {
+        if (count == keys.length) {
+            int capacity = count * 2;
+            meshes = Arrays.copyOf(meshes, capacity);
+            materials = Arrays.copyOf(materials, capacity);
+            models = Arrays.copyOf(models, capacity * Mat4Batch.STRIDE);
+            keys = Arrays.copyOf(keys, capacity);
+            order = Arrays.copyOf(order, capacity);
+            keyScratch = new long[capacity];
+            orderScratch = new int[capacity];
+        }
+        return count++;
+    }
+
+    private void finishAdd(int i, Mesh mesh, Material material) {
+        meshes[i] = mesh;
+        materials[i] = material;
+        order[i] = i;
+
+        // View-space depth of the model's origin; the camera looks down -z
+        int o = i * Mat4Batch.STRIDE;
+        float depth = -(viewZx * models[o + 12] + viewZy * models[o + 13]
+                        + viewZz * models[o + 14] + viewZw);
+        keys[i] = makeKey(material.isTransparent() ? PASS_TRANSPARENT : PASS_OPAQUE,
+                          material.getShader().getID(), material.getSortId(), mesh.getSortId(),
+                          depth);
+    }
+
+    static long makeKey(int pass, int shaderId, int materialId, int meshId, float depth) {
+        long shader = shaderId & ((1L << ID_BITS_SHADER) - 1);
+        long material = materialId & ((1L << ID_BITS_MATERIAL) - 1);
+        long mesh = meshId & ((1L << ID_BITS_MESH) - 1);
+        // The bits of a non-negative float order the same way as its value
+        long d = (Float.floatToRawIntBits(Math.max(depth, 0f)) >>> 3) & DEPTH_MASK;
+        long state = (shader << (ID_BITS_MATERIAL + ID_BITS_MESH)) | (material << ID_BITS_MESH) | mesh;
+        if (pass == PASS_OPAQUE) {
+            return ((long) pass << 62) | (state << DEPTH_BITS) | d;
+        }
+        return ((long) pass << 62) | ((DEPTH_MASK - d) << 34) | state;
+    }
+
+    // Orders the draws by key with a byte-wise LSD radix sort, skipping bytes every key shares
+    public void sort() {
+        long[] k = keys, kOut = keyScratch;
+        int[] o = order, oOut = orderScratch;
+        for (int shift = 0; shift < 64; shift += 8) {
+            Arrays.fill(histogram, 0);
+            for (int i = 0; i < count; i++) {
+                histogram[(int) (k[i] >>> shift) & 0xFF]++;
+            }
+            if (count == 0 || histogram[(int) (k[0] >>> shift) & 0xFF] == count) continue;
+
+            int sum = 0;
+            for (int b = 0; b < 256; b++) {
+                int c = histogram[b];
+                histogram[b] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < count; i++) {
+                int dst = histogram[(int) (k[i] >>> shift) & 0xFF]++;
+                kOut[dst] = k[i];
+                oOut[dst] = o[i];
+            }
+            long[] kt = k; k = kOut; kOut = kt;
+            int[] ot = o; o = oOut; oOut = ot;
+        }
+        keys = k;
+        keyScratch = kOut;
+        order = o;
+        orderScratch = oOut;
+    }
+
+    // Draws everything in sorted order; call sort first, and upload the frame's FrameUniforms before
+    public void submit(GL3 gl) {
+        shaderChanges = 0;
+        materialChanges = 0;
+        meshChanges = 0;
+        drawCalls = 0;
+        instancedDraws = 0;
+
+        Shader boundShader = null;
+        Material boundMaterial = null;
+        Mesh boundMesh = null;
+        for (int k = 0; k < count; ) {
+            int i = order[k];
+            Material material = materials[i];
+            Mesh mesh = meshes[i];
+
+            // Sorting put draws of the same material and mesh next to each other
+            int run = 1;
+            if (instancing && material.supportsInstancing()) {
+                while (k + run < count && materials[order[k + run]] == material
+                       && meshes[order[k + run]] == mesh) {
+                    run++;
+                }
+            }
+            boolean instanced = run >= MIN_INSTANCES;
+            Shader shader = instanced ? material.getInstancedShader() : material.getShader();
+
+            if (material != boundMaterial || shader != boundShader) {
+                if (boundMaterial != null) boundMaterial.restore(gl);
+                if (instanced) material.useInstancedShader(gl);
+                else material.useShader(gl);
+                if (shader != boundShader) {
+                    boundShader = shader;
+                    shaderChanges++;
+                }
+                material.apply(gl);
+                boundMaterial = material;
+                materialChanges++;
+            }
+            if (mesh != boundMesh) {
+                mesh.bind(gl);
+                boundMesh = mesh;
+                meshChanges++;
+            }
+
+            if (instanced) {
+                FloatBuffer data = instanceBuffer(run);
+                for (int j = 0; j < run; j++) {
+                    data.put(models, order[k + j] * Mat4Batch.STRIDE, Mat4Batch.STRIDE);
+                }
+                data.flip();
+                mesh.drawInstanced(gl, data, run);
+                drawCalls++;
+                instancedDraws++;
+            } else {
+                for (int j = 0; j < run; j++) {
+                    model.setFrom(models, order[k + j] * Mat4Batch.STRIDE);
+                    material.setTransformUniforms(gl, model);
+                    mesh.draw(gl);
+                    drawCalls++;
+                }
+            }
+            k += run;
+        }
+        if (boundMaterial != null) boundMaterial.restore(gl);
+    }
+
+    // The reused instance upload buffer, cleared and grown to hold at least instances matrices
+    private FloatBuffer instanceBuffer(int instances) {
+        int floats = instances * Mat4Batch.STRIDE;
+        if (instanceData.capacity() < floats) {
+            instanceData = Buffers.newDirectFloatBuffer(Math.max(floats, instanceData.capacity() * 2));
+        }
+        instanceData.clear();
+        return instanceData;
+    }
+
+    public int getShaderChanges() {
+        return shaderChanges;
+    }
+
+    public int getMaterialChanges() {
+        return materialChanges;
+    }
+
+    public int getMeshChanges() {
+        return meshChanges;
+    }
+
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    // Draw calls that were glDrawElementsInstanced
+    public int getInstancedDraws() {
+        return instancedDraws;
+    }
+}
@@ -5,6 +5,8 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.charset.Charset;
+import java.nio.FloatBuffer;
+import com.jogamp.common.nio.Buffers;
 import com.jogamp.opengl.*;
 import com.jogamp.opengl.util.glsl.*;  
 /* I declare that this code is my own work, adapted from Lab Code*/
@@ -18,6 +20,9 @@ public class Shader {
   private int ID;
   private String vertexShaderSource;
   private String fragmentShaderSource;
+
+  // reused for every matrix upload so uniforms need no per-call arrays
+  private final FloatBuffer matrixBuffer = Buffers.newDirectFloatBuffer(16);
   
   /* The constructor */
   public Shader(GL3 gl, String vertexPath, String fragmentPath) {
@@ -37,7 +42,7 @@ public class Shader {
   }
   
   public void use(GL3 gl) {
-    gl.glUseProgram(ID);
+    GLStateCache.useProgram(gl, ID);
   }
   
   public void setInt(GL3 gl, String name, int value) {
@@ -81,7 +86,13 @@ public class Shader {
         System.err.println("Warning: uniform '" + name + "' not found in shader");
         return;
     }
-    gl.glUniformMatrix4fv(location, 1, false, matrix.toFloatArrayForGLSL(), 0);
+    matrix.writeTo(matrixBuffer, 0);
+    setMat4(gl, location, matrixBuffer);
+  }
+
+  // buffer holds 16 column-major floats from its position onwards
+  public void setMat4(GL3 gl, int location, FloatBuffer buffer) {
+    gl.glUniformMatrix4fv(location, 1, false, buffer);
   }
   
   private void display() {
@@ -110,7 +121,16 @@ public class Shader {
     program.link(gl, System.out);
     if (!program.validateProgram(gl, System.out))
       System.err.println("[error] Unable to link program");
+    bindUniformBlock(gl, program.program(), FrameUniforms.FRAME_BLOCK, FrameUniforms.FRAME_BINDING);
+    bindUniformBlock(gl, program.program(), FrameUniforms.LIGHT_BLOCK, FrameUniforms.LIGHT_BINDING);
     return program.program();
   }
 
+  // GLSL 330 has no layout(binding), so shared blocks are attached to their binding points here
+  private void bindUniformBlock(GL3 gl, int program, String block, int binding) {
+    int index = gl.glGetUniformBlockIndex(program, block);
+    if (index != GL3.GL_INVALID_INDEX)
+      gl.glUniformBlockBinding(program, index, binding);
+  }
+
 }
@@ -0,0 +1,175 @@
+package engine.rendering;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.common.nio.PointerBuffer;
+import com.jogamp.opengl.GL3;
+
+import engine.gmaths.Mat4;
+import engine.gmaths.Mat4Batch;
+
+/**
+ * Static meshes that share a material, merged into one vertex and index
+ * buffer so they draw together.
+ *
+ * Each member's vertices are moved into world space when the batch is
+ * built, normals included, so the batch draws with an identity model
+ * matrix. The members' indices stay in separate consecutive ranges, and
+ * a draw takes a visibility flag per member: the visible ranges,
+ * neighbours joined, go out in a single glMultiDrawElements.
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class StaticBatch {
+
+    private static final int STRIDE = 8;  // position, normal, uv; as in Mesh
+
+    private final Material material;
+    private final List<Mesh> sourceMeshes = new ArrayList<>();
+    private final List<Mat4> sourceModels = new ArrayList<>();
+
+    private Mesh mesh;
+    private int[] firstIndex;
+    private int[] indexCount;
+    private IntBuffer rangeCounts;
+    private PointerBuffer rangeOffsets;
+    private final Mat4 identity = new Mat4(1);
+
+    public StaticBatch(Material material) {
+        this.material = material;
+    }
+
+    public Material getMaterial() {
+        return material;
+    }
+
+    // Queues a member for build; returns its index, the slot of its visibility flag
+    public int add(Mesh mesh, Mat4 model) {
+        sourceMeshes.add(mesh);
+        sourceModels.add(model);
+        return sourceMeshes.size() - 1;
+    }
+
+    public int size() {
+        return (firstIndex != null) ? firstIndex.length : sourceMeshes.size();
+    }
+
+    // Merges the members into world-space buffers; call once, after every add
+    public void build(GL3 gl) {
+        int members = sourceMeshes.size();
+        int vertexFloats = 0;
+        int indices = 0;
+        for (Mesh m : sourceMeshes) {
+            vertexFloats += m.getVertices().length;
+            indices += m.getIndices().length;
+        }
+
+        float[] vertices = new float[vertexFloats];
+        int[] merged = new int[indices];
+        firstIndex = new int[members];
+        indexCount = new int[members];
+        float[] modelMatrix = new float[Mat4Batch.STRIDE];
+        float[] normalMatrix = new float[Mat4Batch.STRIDE];
+
+        int v = 0;
+        int e = 0;
+        for (int b = 0; b < members; b++) {
+            float[] src = sourceMeshes.get(b).getVertices();
+            int[] srcIndices = sourceMeshes.get(b).getIndices();
+            Mat4 model = sourceModels.get(b);
+            model.copyTo(modelMatrix, 0);
+            cofactor(model, normalMatrix);
+
+            // Positions and normals in one pass each over the interleaved vertices; uvs copied as they are
+            int vertexCount = src.length / STRIDE;
+            int baseVertex = v / STRIDE;
+            Mat4Batch.transformPoints(modelMatrix, 0, src, 0, vertices, v, STRIDE, vertexCount);
+            Mat4Batch.transformPoints(normalMatrix, 0, src, 3, vertices, v + 3, STRIDE, vertexCount);
+            for (int s = 0; s < vertexCount * STRIDE; s += STRIDE, v += STRIDE) {
+                float tx = vertices[v + 3], ty = vertices[v + 4], tz = vertices[v + 5];
+                float len = (float) Math.sqrt(tx * tx + ty * ty + tz * tz);
+                float inv = (len > 0f) ? 1f / len : 0f;
+                vertices[v + 3] = tx * inv;
+                vertices[v + 4] = ty * inv;
+                vertices[v + 5] = tz * inv;
+
+                vertices[v + 6] = src[s + 6];
+                vertices[v + 7] = src[s + 7];
+            }
+
+            firstIndex[b] = e;
+            indexCount[b] = srcIndices.length;
+            for (int idx : srcIndices) {
+                merged[e++] = idx + baseVertex;
+            }
+        }
+
+        mesh = new Mesh(gl, vertices, merged);
+        rangeCounts = Buffers.newDirectIntBuffer(members);
+        rangeOffsets = PointerBuffer.allocateDirect(members);
+        sourceMeshes.clear();
+        sourceModels.clear();
+    }
+
+    /**
+     * Writes the normal matrix of m, the inverse transpose of its upper
+     * 3x3, as a column-major 4x4 with no translation, so Mat4Batch can
+     * apply it to normals as points. The cofactor matrix is that times the
+     * determinant, so only the determinant's sign is kept; normals are
+     * renormalised after.
+     */
+    private static void cofactor(Mat4 m, float[] out) {
+        float a = m.get(0, 0), b = m.get(0, 1), c = m.get(0, 2);
+        float d = m.get(1, 0), e = m.get(1, 1), f = m.get(1, 2);
+        float g = m.get(2, 0), h = m.get(2, 1), i = m.get(2, 2);
+        // row r, column c of the normal matrix goes to out[c*4 + r]
+        float n00 = e * i - f * h, n01 = f * g - d * i, n02 = d * h - e * g;
+        float n10 = c * h - b * i, n11 = a * i - c * g, n12 = b * g - a * h;
+        float n20 = b * f - c * e, n21 = c * d - a * f, n22 = a * e - b * d;
+        float sign = (a * n00 + b * n01 + c * n02 < 0f) ? -1f : 1f;
+        out[0] = sign * n00;  out[4] = sign * n01;  out[8]  = sign * n02;  out[12] = 0f;
+        out[1] = sign * n10;  out[5] = sign * n11;  out[9]  = sign * n12;  out[13] = 0f;
+        out[2] = sign * n20;  out[6] = sign * n21;  out[10] = sign * n22;  out[14] = 0f;
+        out[3] = 0f;          out[7] = 0f;          out[11] = 0f;          out[15] = 1f;
+    }
+
+    /**
+     * Draws the members whose flag in visible is set. Returns the number
+     * of index ranges submitted, 0 when nothing was drawn.
+     */
+    public int draw(GL3 gl, boolean[] visible) {
+        int ranges = 0;
+        int rangeEnd = -1;
+        for (int b = 0; b < firstIndex.length; b++) {
+            if (!visible[b]) continue;
+            if (ranges > 0 && rangeEnd == firstIndex[b]) {
+                rangeCounts.put(ranges - 1, rangeCounts.get(ranges - 1) + indexCount[b]);
+            } else {
+                rangeCounts.put(ranges, indexCount[b]);
+                rangeOffsets.put(ranges, (long) firstIndex[b] * Integer.BYTES);
+                ranges++;
+            }
+            rangeEnd = firstIndex[b] + indexCount[b];
+        }
+        if (ranges == 0) return 0;
+
+        material.useShader(gl);
+        material.apply(gl);
+        material.setTransformUniforms(gl, identity);
+        mesh.bind(gl);
+        rangeCounts.rewind();
+        rangeOffsets.rewind();
+        mesh.drawRanges(gl, rangeCounts, rangeOffsets, ranges);
+        material.restore(gl);
+        return ranges;
+    }
+
+    public void dispose(GL3 gl) {
+        if (mesh != null) mesh.dispose(gl);
+    }
+}
@@ -33,6 +33,7 @@ public class TextureLibrary {
             tex.setTexParameteri(gl, GL3.GL_TEXTURE_MIN_FILTER, GL3.GL_LINEAR_MIPMAP_LINEAR);
             tex.setTexParameteri(gl, GL3.GL_TEXTURE_MAG_FILTER, GL3.GL_LINEAR);
             gl.glGenerateMipmap(GL3.GL_TEXTURE_2D);
+            GLStateCache.forgetTextureBindings(); // bound above without the cache
             cache.put(path, tex);
             return tex;
         } catch (Exception e) {
@@ -0,0 +1,530 @@
+package engine.scene;
+
+import java.util.Arrays;
+import java.util.List;
+
+import engine.gmaths.Vec3;
+
+/**
+ * A dynamic AABB tree (bounding volume hierarchy) over items with
+ * world-space bounding boxes.
+ *
+ * Leaves keep the item's exact box plus a "fat" box grown by a margin;
+ * internal nodes enclose their children's fat boxes. Moving an item only
+ * touches the tree when its new box leaves the fat box, so small movements
+ * cost nothing. Insertion picks the sibling with the least added surface
+ * area and rotations keep the tree height-balanced, as in Box2D's
+ * b2DynamicTree.
+ *
+ * Nodes live in flat arrays. Items are addressed by the int proxy returned
+ * from insert. Boxes are 6 floats: min x, y, z then max x, y, z.
+ *
+ * Queries clear the caller's output list and fill it with every item whose
+ * box passes the test, so a list kept by the caller can be reused with no
+ * allocation once it has grown to size.
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class BoundsTree<T> {
+
+    public static final float DEFAULT_MARGIN = 0.1f;
+    private static final int NULL = -1;
+
+    private final float margin;
+
+    private float[] fat;        // 6 per node
+    private float[] tight;      // 6 per node, leaves only
+    private int[] parent;       // for free nodes, the next free node
+    private int[] left;         // NULL for leaves
+    private int[] right;
+    private int[] height;       // 0 for leaves, -1 for free nodes
+    private Object[] items;
+
+    private int capacity;
+    private int freeList = NULL;
+    private int root = NULL;
+    private int leafCount = 0;
+
+    private int[] stack = new int[64];
+
+    public BoundsTree() {
+        this(DEFAULT_MARGIN);
+    }
+
+    public BoundsTree(float margin) {
+        this.margin = margin;
+        this.capacity = 0;
+        fat = new float[0];
+        tight = new float[0];
+        parent = new int[0];
+        left = new int[0];
+        right = new int[0];
+        height = new int[0];
+        items = new Object[0];
+        grow(16);
+    }
+
+    // Adds item with the box at bounds[offset] and returns its proxy
+    public int insert(T item, float[] bounds, int offset) {
+        int leaf = allocateNode();
+        items[leaf] = item;
+        height[leaf] = 0;
+        setLeafBounds(leaf, bounds, offset);
+        insertLeaf(leaf);
+        leafCount++;
+        return leaf;
+    }
+
+    public void remove(int proxy) {
+        checkLeaf(proxy);
+        removeLeaf(proxy);
+        freeNode(proxy);
+        leafCount--;
+    }
+
+    /**
+     * Sets the item's box. The tree is only restructured when the box has
+     * left the proxy's fat box; returns true when that happened.
+     */
+    public boolean update(int proxy, float[] bounds, int offset) {
+        checkLeaf(proxy);
+        int o = proxy * 6;
+        System.arraycopy(bounds, offset, tight, o, 6);
+        if (contains(fat, o, bounds, offset)) {
+            return false;
+        }
+        removeLeaf(proxy);
+        setLeafBounds(proxy, bounds, offset);
+        insertLeaf(proxy);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int proxy) {
+        checkLeaf(proxy);
+        return (T) items[proxy];
+    }
+
+    public void getBounds(int proxy, float[] out, int offset) {
+        checkLeaf(proxy);
+        System.arraycopy(tight, proxy * 6, out, offset, 6);
+    }
+
+    public int size() {
+        return leafCount;
+    }
+
+    public int getHeight() {
+        return (root == NULL) ? 0 : height[root];
+    }
+
+    // Items whose box overlaps the box at bounds[offset]
+    public int queryBounds(float[] bounds, int offset, List<T> out) {
+        out.clear();
+        int top = push(0, root);
+        while (top > 0) {
+            int node = stack[--top];
+            boolean leaf = left[node] == NULL;
+            if (!overlaps(leaf ? tight : fat, node * 6, bounds, offset)) continue;
+            if (leaf) {
+                add(node, out);
+            } else {
+                top = push(push(top, left[node]), right[node]);
+            }
+        }
+        return out.size();
+    }
+
+    // Items whose box is within radius of center
+    public int queryRadius(Vec3 center, float radius, List<T> out) {
+        out.clear();
+        float r2 = radius * radius;
+        int top = push(0, root);
+        while (top > 0) {
+            int node = stack[--top];
+            boolean leaf = left[node] == NULL;
+            if (distanceSquared(leaf ? tight : fat, node * 6, center.x, center.y, center.z) > r2) continue;
+            if (leaf) {
+                add(node, out);
+            } else {
+                top = push(push(top, left[node]), right[node]);
+            }
+        }
+        return out.size();
+    }
+
+    /**
+     * Items whose box's bounding sphere touches the cone with the given apex
+     * and axis, where cosHalfAngle is the cosine of the angle between the
+     * axis and the cone's side, cut off at range from the apex. The sphere
+     * test is conservative, so items just outside a corner can be reported.
+     */
+    public int queryCone(Vec3 apex, Vec3 axis, float cosHalfAngle, float range, List<T> out) {
+        out.clear();
+        float len = (float) Math.sqrt(axis.x * axis.x + axis.y * axis.y + axis.z * axis.z);
+        if (len == 0f) return 0;
+        float dx = axis.x / len, dy = axis.y / len, dz = axis.z / len;
+        float sinHalfAngle = (float) Math.sqrt(Math.max(0f, 1f - cosHalfAngle * cosHalfAngle));
+        float r2 = range * range;
+
+        int top = push(0, root);
+        while (top > 0) {
+            int node = stack[--top];
+            boolean leaf = left[node] == NULL;
+            float[] b = leaf ? tight : fat;
+            int o = node * 6;
+            if (distanceSquared(b, o, apex.x, apex.y, apex.z) > r2) continue;
+
+            // bounding sphere of the box against the cone
+            float cx = (b[o] + b[o + 3]) * 0.5f - apex.x;
+            float cy = (b[o + 1] + b[o + 4]) * 0.5f - apex.y;
+            float cz = (b[o + 2] + b[o + 5]) * 0.5f - apex.z;
+            float ex = b[o + 3] - b[o], ey = b[o + 4] - b[o + 1], ez = b[o + 5] - b[o + 2];
+            float radius = 0.5f * (float) Math.sqrt(ex * ex + ey * ey + ez * ez);
+            float along = cx * dx + cy * dy + cz * dz;
+            float lenSq = cx * cx + cy * cy + cz * cz;
+            float across = (float) Math.sqrt(Math.max(0f, lenSq - along * along));
+            if (cosHalfAngle * across - along * sinHalfAngle > radius || along < -radius) continue;
+
+            if (leaf) {
+                add(node, out);
+            } else {
+                top = push(push(top, left[node]), right[node]);
+            }
+        }
+        return out.size();
+    }
+
+    // Items whose box is hit by the ray from origin along direction, within maxDistance
+    public int queryRay(Vec3 origin, Vec3 direction, float maxDistance, List<T> out) {
+        out.clear();
+        float len = (float) Math.sqrt(direction.x * direction.x + direction.y * direction.y + direction.z * direction.z);
+        if (len == 0f) return 0;
+        // a zero component gives an infinite reciprocal, which the slab test
+        // handles unless the origin lies exactly on one of that axis's faces
+        float ix = len / direction.x, iy = len / direction.y, iz = len / direction.z;
+
+        int top = push(0, root);
+        while (top > 0) {
+            int node = stack[--top];
+            boolean leaf = left[node] == NULL;
+            if (!rayHits(leaf ? tight : fat, node * 6, origin, ix, iy, iz, maxDistance)) continue;
+            if (leaf) {
+                add(node, out);
+            } else {
+                top = push(push(top, left[node]), right[node]);
+            }
+        }
+        return out.size();
+    }
+
+    // Items whose box is not entirely outside one of the frustum's planes
+    public int queryFrustum(Frustum frustum, List<T> out) {
+        out.clear();
+        int top = push(0, root);
+        while (top > 0) {
+            int node = stack[--top];
+            boolean leaf = left[node] == NULL;
+            if (!frustum.intersectsBounds(leaf ? tight : fat, node * 6)) continue;
+            if (leaf) {
+                add(node, out);
+            } else {
+                top = push(push(top, left[node]), right[node]);
+            }
+        }
+        return out.size();
+    }
+
+    // ---- tree maintenance ----
+
+    private void insertLeaf(int leaf) {
+        if (root == NULL) {
+            root = leaf;
+            parent[leaf] = NULL;
+            return;
+        }
+
+        // Walk down, choosing the child that adds the least surface area
+        int lo = leaf * 6;
+        int index = root;
+        while (left[index] != NULL) {
+            int o = index * 6;
+            float area = area(fat, o);
+            float combined = unionArea(fat, o, fat, lo);
+            float cost = 2f * combined;               // new parent for index and leaf
+            float inheritance = 2f * (combined - area); // growth pushed onto index's ancestors
+
+            float costLeft = childCost(left[index], lo) + inheritance;
+            float costRight = childCost(right[index], lo) + inheritance;
+            if (cost < costLeft && cost < costRight) break;
+            index = (costLeft < costRight) ? left[index] : right[index];
+        }
+
+        int sibling = index;
+        int oldParent = parent[sibling];
+        int newParent = allocateNode();
+        parent[newParent] = oldParent;
+        items[newParent] = null;
+        union(fat, sibling * 6, fat, lo, fat, newParent * 6);
+        height[newParent] = height[sibling] + 1;
+        left[newParent] = sibling;
+        right[newParent] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+        if (oldParent == NULL) {
+            root = newParent;
+        } else if (left[oldParent] == sibling) {
+            left[oldParent] = newParent;
+        } else {
+            right[oldParent] = newParent;
+        }
+
+        refitFrom(parent[leaf]);
+    }
+
+    private void removeLeaf(int leaf) {
+        if (leaf == root) {
+            root = NULL;
+            return;
+        }
+        int p = parent[leaf];
+        int grandParent = parent[p];
+        int sibling = (left[p] == leaf) ? right[p] : left[p];
+
+        if (grandParent == NULL) {
+            root = sibling;
+            parent[sibling] = NULL;
+            freeNode(p);
+            return;
+        }
+        if (left[grandParent] == p) {
+            left[grandParent] = sibling;
+        } else {
+            right[grandParent] = sibling;
+        }
+        parent[sibling] = grandParent;
+        freeNode(p);
+        refitFrom(grandParent);
+    }
+
+    // Rebalances and refits every ancestor from index to the root
+    private void refitFrom(int index) {
+        while (index != NULL) {
+            index = balance(index);
+            int l = left[index], r = right[index];
+            height[index] = 1 + Math.max(height[l], height[r]);
+            union(fat, l * 6, fat, r * 6, fat, index * 6);
+            index = parent[index];
+        }
+    }
+
+    // Rotates a child up if a's subtrees differ in height by more than one; returns the new subtree root
+    private int balance(int a) {
+        if (left[a] == NULL || height[a] < 2) {
+            return a;
+        }
+        int b = left[a];
+        int c = right[a];
+        int diff = height[c] - height[b];
+
+        if (diff > 1) {
+            int f = left[c];
+            int g = right[c];
+            left[c] = a;
+            parent[c] = parent[a];
+            parent[a] = c;
+            replaceChild(parent[c], a, c);
+            if (height[f] > height[g]) {
+                right[c] = f;
+                right[a] = g;
+                parent[g] = a;
+                union(fat, b * 6, fat, g * 6, fat, a * 6);
+                union(fat, a * 6, fat, f * 6, fat, c * 6);
+                height[a] = 1 + Math.max(height[b], height[g]);
+                height[c] = 1 + Math.max(height[a], height[f]);
+            } else {
+                right[c] = g;
+                right[a] = f;
+                parent[f] = a;
+                union(fat, b * 6, fat, f * 6, fat, a * 6);
+                union(fat, a * 6, fat, g * 6, fat, c * 6);
+                height[a] = 1 + Math.max(height[b], height[f]);
+                height[c] = 1 + Math.max(height[a], height[g]);
+            }
+            return c;
+        }
+
+        if (diff < -1) {
+            int d = left[b];
+            int e = right[b];
+            left[b] = a;
+            parent[b] = parent[a];
+            parent[a] = b;
+            replaceChild(parent[b], a, b);
+            if (height[d] > height[e]) {
+                right[b] = d;
+                left[a] = e;
+                parent[e] = a;
+                union(fat, c * 6, fat, e * 6, fat, a * 6);
+                union(fat, a * 6, fat, d * 6, fat, b * 6);
+                height[a] = 1 + Math.max(height[c], height[e]);
+                height[b] = 1 + Math.max(height[a], height[d]);
+            } else {
+                right[b] = e;
+                left[a] = d;
+                parent[d] = a;
+                union(fat, c * 6, fat, d * 6, fat, a * 6);
+                union(fat, a * 6, fat, e * 6, fat, b * 6);
+                height[a] = 1 + Math.max(height[c], height[d]);
+                height[b] = 1 + Math.max(height[a], height[e]);
+            }
+            return b;
+        }
+        return a;
+    }
+
+    private void replaceChild(int p, int oldChild, int newChild) {
+        if (p == NULL) {
+            root = newChild;
+        } else if (left[p] == oldChild) {
+            left[p] = newChild;
+        } else {
+            right[p] = newChild;
+        }
+    }
+
+    // Cost of descending into child when inserting the leaf box at lo
+    private float childCost(int child, int lo) {
+        int o = child * 6;
+        float combined = unionArea(fat, o, fat, lo);
+        return (left[child] == NULL) ? combined : combined - area(fat, o);
+    }
+
+    private void setLeafBounds(int leaf, float[] bounds, int offset) {
+        int o = leaf * 6;
+        System.arraycopy(bounds, offset, tight, o, 6);
+        for (int k = 0; k < 3; k++) {
+            fat[o + k] = bounds[offset + k] - margin;
+            fat[o + k + 3] = bounds[offset + k + 3] + margin;
+        }
+    }
+
+    private int allocateNode() {
+        if (freeList == NULL) {
+            grow(capacity * 2);
+        }
+        int node = freeList;
+        freeList = parent[node];
+        parent[node] = NULL;
+        left[node] = NULL;
+        right[node] = NULL;
+        height[node] = 0;
+        return node;
+    }
+
+    private void freeNode(int node) {
+        items[node] = null;
+        height[node] = -1;
+        left[node] = NULL;
+        parent[node] = freeList;
+        freeList = node;
+    }
+
+    private void grow(int newCapacity) {
+        fat = Arrays.copyOf(fat, newCapacity * 6);
+        tight = Arrays.copyOf(tight, newCapacity * 6);
+        parent = Arrays.copyOf(parent, newCapacity);
+        left = Arrays.copyOf(left, newCapacity);
+        right = Arrays.copyOf(right, newCapacity);
+        height = Arrays.copyOf(height, newCapacity);
+        items = Arrays.copyOf(items, newCapacity);
+        // chain the new nodes onto the free list
+        for (int i = newCapacity - 1; i >= capacity; i--) {
+            height[i] = -1;
+            left[i] = NULL;
+            parent[i] = freeList;
+            freeList = i;
+        }
+        capacity = newCapacity;
+    }
+
+    private void checkLeaf(int proxy) {
+        if (proxy < 0 || proxy >= capacity || height[proxy] != 0) {
+            throw new IllegalArgumentException("Invalid BoundsTree proxy " + proxy);
+        }
+    }
+
+    // ---- traversal helpers ----
+
+    private int push(int top, int node) {
+        if (node == NULL) return top;
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, top * 2);
+        }
+        stack[top] = node;
+        return top + 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void add(int leaf, List<T> out) {
+        out.add((T) items[leaf]);
+    }
+
+    // ---- box maths ----
+
+    // Half the surface area; only compared, so the constant factor does not matter
+    private static float area(float[] b, int o) {
+        float x = b[o + 3] - b[o], y = b[o + 4] - b[o + 1], z = b[o + 5] - b[o + 2];
+        return x * y + y * z + z * x;
+    }
+
+    private static float unionArea(float[] a, int ao, float[] b, int bo) {
+        float x = Math.max(a[ao + 3], b[bo + 3]) - Math.min(a[ao], b[bo]);
+        float y = Math.max(a[ao + 4], b[bo + 4]) - Math.min(a[ao + 1], b[bo + 1]);
+        float z = Math.max(a[ao + 5], b[bo + 5]) - Math.min(a[ao + 2], b[bo + 2]);
+        return x * y + y * z + z * x;
+    }
+
+    private static void union(float[] a, int ao, float[] b, int bo, float[] out, int oo) {
+        for (int k = 0; k < 3; k++) {
+            out[oo + k] = Math.min(a[ao + k], b[bo + k]);
+            out[oo + k + 3] = Math.max(a[ao + k + 3], b[bo + k + 3]);
+        }
+    }
+
+    private static boolean contains(float[] outer, int oo, float[] inner, int io) {
+        return outer[oo] <= inner[io] && outer[oo + 1] <= inner[io + 1] && outer[oo + 2] <= inner[io + 2]
+            && outer[oo + 3] >= inner[io + 3] && outer[oo + 4] >= inner[io + 4] && outer[oo + 5] >= inner[io + 5];
+    }
+
+    private static boolean overlaps(float[] a, int ao, float[] b, int bo) {
+        return a[ao] <= b[bo + 3] && a[ao + 3] >= b[bo]
+            && a[ao + 1] <= b[bo + 4] && a[ao + 4] >= b[bo + 1]
+            && a[ao + 2] <= b[bo + 5] && a[ao + 5] >= b[bo + 2];
+    }
+
+    // Squared distance from the point to the box (0 inside)
+    private static float distanceSquared(float[] b, int o, float x, float y, float z) {
+        float dx = Math.max(0f, Math.max(b[o] - x, x - b[o + 3]));
+        float dy = Math.max(0f, Math.max(b[o + 1] - y, y - b[o + 4]));
+        float dz = Math.max(0f, Math.max(b[o + 2] - z, z - b[o + 5]));
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    // Slab test; ix, iy, iz are the reciprocals of the unit ray direction
+    private static boolean rayHits(float[] b, int o, Vec3 origin, float ix, float iy, float iz, float maxDistance) {
+        float t1 = (b[o] - origin.x) * ix, t2 = (b[o + 3] - origin.x) * ix;
+        float tMin = Math.min(t1, t2), tMax = Math.max(t1, t2);
+        t1 = (b[o + 1] - origin.y) * iy;
+        t2 = (b[o + 4] - origin.y) * iy;
+        tMin = Math.max(tMin, Math.min(t1, t2));
+        tMax = Math.min(tMax, Math.max(t1, t2));
+        t1 = (b[o + 2] - origin.z) * iz;
+        t2 = (b[o + 5] - origin.z) * iz;
+        tMin = Math.max(tMin, Math.min(t1, t2));
+        tMax = Math.min(tMax, Math.max(t1, t2));
+        return tMax >= Math.max(tMin, 0f) && tMin <= maxDistance;
+    }
+}
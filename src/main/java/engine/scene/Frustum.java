@@ -0,0 +1,73 @@
+package engine.scene;
+
+import engine.gmaths.Mat4;
+
+/**
+ * The six clip planes of a view-projection matrix, for culling and
+ * spatial queries.
+ *
+ * Planes are stored as normalised (a, b, c, d) with the normal pointing
+ * into the frustum, so a point p is inside a plane when a*px + b*py +
+ * c*pz + d >= 0.
+ */
+/* I declare that this code is my own work*/
+/* Author Jakub Bala 
+jbala1@sheffield.ac.uk
+*/
+public final class Frustum {
+
+    private final float[] planes = new float[24];  // left, right, bottom, top, near, far
+    private final Mat4 viewProjection = new Mat4();
+
+    // Extracts the planes of projection x view (Gribb and Hartmann)
+    public Frustum set(Mat4 projection, Mat4 view) {
+        return set(Mat4.multiplyInto(projection, view, viewProjection));
+    }
+
+    public Frustum set(Mat4 m) {
+        for (int i = 0; i < 3; i++) {
+            // row 3 plus and minus row i
+            setPlane(i * 2,
+                m.get(3, 0) + m.get(i, 0), m.get(3, 1) + m.get(i, 1),
+                m.get(3, 2) + m.get(i, 2), m.get(3, 3) + m.get(i, 3));
+            setPlane(i * 2 + 1,
+                m.get(3, 0) - m.get(i, 0), m.get(3, 1) - m.get(i, 1),
+                m.get(3, 2) - m.get(i, 2), m.get(3, 3) - m.get(i, 3));
+        }
+        return this;
+    }
+
+    private void setPlane(int plane, float a, float b, float c, float d) {
+        float inv = 1f / (float) Math.sqrt(a * a + b * b + c * c);
+        int o = plane * 4;
+        planes[o] = a * inv;
+        planes[o + 1] = b * inv;
+        planes[o + 2] = c * inv;
+        planes[o + 3] = d * inv;
+    }
+
+    // True unless the box at b[o] (min x, y, z, max x, y, z) is entirely outside one plane.
+    // Conservative: boxes near a frustum corner may pass without intersecting.
+    public boolean intersectsBounds(float[] b, int o) {
+        for (int p = 0; p < 24; p += 4) {
+            float a = planes[p], bb = planes[p + 1], c = planes[p + 2];
+            // the box corner furthest along the plane normal
+            float x = (a >= 0) ? b[o + 3] : b[o];
+            float y = (bb >= 0) ? b[o + 4] : b[o + 1];
+            float z = (c >= 0) ? b[o + 5] : b[o + 2];
+            if (a * x + bb * y + c * z + planes[p + 3] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean intersectsSphere(float x, float y, float z, float radius) {
+        for (int p = 0; p < 24; p += 4) {
+            if (planes[p] * x + planes[p + 1] * y + planes[p + 2] * z + planes[p + 3] < -radius) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
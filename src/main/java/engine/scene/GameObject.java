@@ -1,18 +1,14 @@
 package engine.scene;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import com.jogamp.opengl.GL3;
-
-import engine.components.Behaviour;
-import engine.components.Light;
 import engine.components.Transform;
+import engine.components.TransformStore;
 import engine.components.core.Component;
-import engine.components.core.Renderable;
-import engine.components.core.Updatable;
-import engine.gmaths.Mat4;
-import engine.gmaths.Vec3;
 /* I declare that this code is my own work*/
 /* Author Jakub Bala 
 jbala1@sheffield.ac.uk
@@ -22,54 +18,38 @@ public class GameObject {
     // SERIALIZED
     private String id; 
     private String name;
+    private boolean isStatic; // never moves once the scene has started; see Scene.Start
     private Transform transform;
     private List<Component> components;
+    private List<Component> componentsView;
     private List<GameObject> children = new ArrayList<>();
 
     // INSTANCED
     private GameObject parent;
     private Scene scene; //owner scene
 
-    // TODO: Initialize GameObject with components already set up
+    // Components by queried type (including supertypes and interfaces), in
+    // component order; filled on first lookup and kept up to date by addComponent
+    private final Map<Class<?>, TypeEntry> componentIndex = new HashMap<>();
 
-    public GameObject(){ 
-        this.transform = new Transform();
-        this.components = new ArrayList<>();
-        this.transform.setGameObject(this);
-        components.add(transform);
+    private static final class TypeEntry {
+        final List<Component> matches = new ArrayList<>();
+        final List<Component> view = Collections.unmodifiableList(matches);
     }
 
-    public void Awake(){
-        for (Component c : components) {
-            if (c instanceof Behaviour) {
-                ((Behaviour) c).Awake();
-            }
-        }
-        for (GameObject child : children) {
-            child.Awake();
-        }
-    }
+    // TODO: Initialize GameObject with components already set up
 
-    public void Start() {
-        for (Component c : components) {
-            if (c instanceof Behaviour) {
-                ((Behaviour) c).Start();
-            }
-        }
-        for (GameObject child : children) {
-            child.Start();
-        }
+    public GameObject(){ 
+        this(TransformStore.getDefault());
     }
 
-    public void Update() {
-        for (Component c : components) {
-            if (c instanceof Updatable) {
-                ((Updatable) c).Update();
-            }
-        }
-        for (GameObject child : children) {
-            child.Update();
-        }
+    // All GameObjects in one hierarchy must share a TransformStore
+    public GameObject(TransformStore store){
+        this.transform = new Transform(store);
+        this.components = new ArrayList<>();
+        this.componentsView = Collections.unmodifiableList(components);
+        this.transform.setGameObject(this);
+        components.add(transform);
     }
 
     public String getId() {
@@ -93,54 +73,101 @@ public class GameObject {
 
     // Add a child
     public void addChild(GameObject child) {
+        if (child.transform.isDisposed()) {
+            throw new IllegalArgumentException("Cannot add '" + child.getName() + "' to '" + name
+                + "': it has been destroyed");
+        }
         if (child.parent != null) {
             child.parent.removeChild(child);  // Remove from old parent
         }
         
         children.add(child);
         child.parent = this;
-        child.transform.markDirty();  // Child's world space changed
+        child.transform.onParentChanged();  // Child's world space changed
+        if (scene != null) {
+            child.setScene(scene);
+            scene.registerHierarchy(child);
+        }
     } 
 
-    // Remove a child
+    // Remove a child; it keeps its transform and can be added again
     public void removeChild(GameObject child) {
         if (children.remove(child)) {
             child.parent = null;
-            child.transform.markDirty();
+            child.transform.onParentChanged();
+            if (scene != null) {
+                scene.unregisterHierarchy(child);
+                child.setScene(null);
+            }
+        }
+    }
+
+    /**
+     * Removes this object from its parent or scene and frees the transform
+     * slots of it and its descendants for reuse. A destroyed object cannot
+     * be added again, and using its Transform throws.
+     */
+    public void destroy() {
+        if (transform.isDisposed()) {
+            return;
+        }
+        if (parent != null) {
+            parent.removeChild(this);
+        } else if (scene != null) {
+            scene.RemoveGameObject(this);
+        }
+        disposeHierarchy();
+    }
+
+    private void disposeHierarchy() {
+        for (GameObject child : children) {
+            child.disposeHierarchy();
         }
+        transform.dispose();
     }
 
     public void addComponent(Component c) {
         c.setGameObject(this);
         components.add(c);
+        if (scene != null) {
+            scene.registerComponent(c);
+        }
+        for (Map.Entry<Class<?>, TypeEntry> e : componentIndex.entrySet()) {
+            if (e.getKey().isInstance(c)) {
+                e.getValue().matches.add(c);
+            }
+        }
     }
 
     public <T extends Component> T getComponent(Class<T> clazz) {
-        for (Component c : components) {
-            if (clazz.isInstance(c)) return clazz.cast(c);
-        }
-        return null;
+        List<Component> matches = indexFor(clazz).matches;
+        return matches.isEmpty() ? null : clazz.cast(matches.get(0));
     }
 
-    public List<Component> getComponents() {
-        return components;
+    // All components assignable to clazz, in the order they were added.
+    // Returns a cached read-only view, so no allocation after the first call per type.
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getComponents(Class<T> clazz) {
+        return (List<T>) (List<?>) indexFor(clazz).view;
     }
 
-    public void render(GL3 gl, Mat4 view, Mat4 projection, Vec3 cameraPosition, List<Light> lights) {
-
-        // Render this GameObject's components
-        for (Component c : components) {
-            if (c instanceof Renderable) {
-                ((Renderable) c).render(gl, view, projection, cameraPosition, lights);
+    private TypeEntry indexFor(Class<?> clazz) {
+        TypeEntry entry = componentIndex.get(clazz);
+        if (entry == null) {
+            entry = new TypeEntry();
+            for (Component c : components) {
+                if (clazz.isInstance(c)) entry.matches.add(c);
             }
+            componentIndex.put(clazz, entry);
         }
+        return entry;
+    }
 
-        // Recursively render all children
-        for (GameObject child : children) {
-            child.render(gl, view, projection, cameraPosition, lights);
-        }
+    // Read-only: add components through addComponent so the type index stays correct
+    public List<Component> getComponents() {
+        return componentsView;
     }
-    
+
     public String getName(){ return name; }
     public Transform getTransform(){ return transform; }
     public GameObject getParent(){ return parent; }
@@ -149,7 +176,12 @@ public class GameObject {
     public void setName(String name){
         this.name = name;
     }
+    public boolean isStatic(){ return isStatic; }
+    public void setStatic(boolean isStatic){
+        this.isStatic = isStatic;
+    }
     public void setParent(GameObject parent){
         this.parent = parent;
+        transform.onParentChanged();
     }
 }
@@ -2,6 +2,11 @@ package engine.scene;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import com.jogamp.opengl.GL3;
 
 import engine.components.Behaviour;
@@ -9,12 +14,23 @@ import engine.components.Camera;
 import engine.components.Light;
 import engine.components.MeshRenderer;
 import engine.components.Transform;
+import engine.components.TransformStore;
 import engine.components.core.Component;
+import engine.components.core.Renderable;
+import engine.components.core.Updatable;
 import engine.debug.BezierVisualizer;
 import engine.debug.DebugAxes;
+import engine.ecs.EntityRenderer;
+import engine.ecs.EntityWorld;
+import engine.ecs.TransformSystem;
 import engine.gmaths.*;
 import engine.math.BezierCurve;
 import engine.math.BezierPath;
+import engine.rendering.FrameUniforms;
+import engine.rendering.LightSnapshot;
+import engine.rendering.Material;
+import engine.rendering.RenderQueue;
+import engine.rendering.StaticBatch;
 import engine.scripts.BeeController;
 import engine.scripts.GlobalLightController;
 import engine.scripts.SpotlightController;
@@ -24,10 +40,60 @@ jbala1@sheffield.ac.uk
 */
 
 public class Scene {
+    public static final int DEFAULT_PARALLEL_TRANSFORM_THRESHOLD = 4096;
+
     private String name;
     private List<GameObject> gameObjects = new ArrayList<>();
+    // Every id'd GameObject and Component in the hierarchy, kept current by
+    // AddGameObject, GameObject.addChild/removeChild and GameObject.addComponent
+    private final Map<String, GameObject> gameObjectsById = new HashMap<>();
+    private final Map<String, Component> componentsById = new HashMap<>();
+    // Flat per-phase dispatch lists in hierarchy (depth-first) order, filled as
+    // components register so each phase is one loop over the components it calls
+    private final List<Behaviour> behaviours = new ArrayList<>();
+    private final List<Component> updatables = new ArrayList<>();
+    private final List<Component> renderables = new ArrayList<>();
+    // Opaque MeshRenderers of static objects, baked at the end of Start
+    private final List<MeshRenderer> staticRenderables = new ArrayList<>();
+    // Static renderers sharing a material, merged at bake time; members[i] is
+    // the renderer behind member i of staticBatches[i], null once removed
+    private final List<StaticBatch> staticBatches = new ArrayList<>();
+    private final List<MeshRenderer[]> staticBatchMembers = new ArrayList<>();
+    private boolean[] batchVisible = new boolean[0];
+    // MeshRenderer and entity draws of the current frame, sorted by state and depth
+    private final RenderQueue renderQueue = new RenderQueue();
+    // Camera, time of day and lights, uploaded once per frame for every shader
+    private final FrameUniforms frameUniforms = new FrameUniforms();
+
+    // World-space bounds of every MeshRenderer, refit after each transform update
+    private final BoundsTree<MeshRenderer> spatialIndex = new BoundsTree<>();
+    private final List<MeshRenderer> spatialRenderers = new ArrayList<>();
+    private int[] spatialProxies = new int[64];
+    private int[] spatialVersions = new int[64];
+    private final float[] scratchBounds = new float[6];
+    // Every registered Light, and the enabled ones gathered once per frame for drawing
+    private final List<Light> lights = new ArrayList<>();
+    private final LightSnapshot activeLights = new LightSnapshot();
+    // View-frustum culling against the spatial index; counts cover the last rendered frame
+    private boolean frustumCulling = true;
+    private final Frustum frustum = new Frustum();
+    private final List<MeshRenderer> visibleRenderers = new ArrayList<>();
+    private int frameNumber = 0;
+    private int visibleCount = 0;
+    private int culledCount = 0;
+
+    // Baked renderers stay in the tree but are never refit
+    private final Map<MeshRenderer, Integer> staticSpatialProxies = new HashMap<>();
+
+    // Optional archetype storage for large numbers of simple objects; null until used
+    private EntityWorld entityWorld;
+    private final TransformSystem entityTransforms = new TransformSystem();
+    private final EntityRenderer entityRenderer = new EntityRenderer();
     private Skybox skybox;
     private Camera mainCamera;
+    private final TransformStore transformStore = TransformStore.getDefault();
+    private boolean parallelTransforms = false;
+    private int parallelTransformThreshold = DEFAULT_PARALLEL_TRANSFORM_THRESHOLD;
 
 
     private Light spotLight;
@@ -53,27 +119,283 @@ public class Scene {
 
     public void AddGameObject(GameObject go) {
         gameObjects.add(go);
+        go.setScene(this);
+        registerHierarchy(go);
     }
 
+    // Removes a root GameObject and its descendants from the scene
+    public void RemoveGameObject(GameObject go) {
+        if (gameObjects.remove(go)) {
+            unregisterHierarchy(go);
+            go.setScene(null);
+        }
+    }
+
+    // Adds go, its components and all of its descendants to the id maps.
+    // The first registration of an id wins, matching the old depth-first search.
+    void registerHierarchy(GameObject go) {
+        String id = go.getId();
+        if (id != null) {
+            GameObject existing = gameObjectsById.putIfAbsent(id, go);
+            if (existing != null && existing != go) {
+                System.err.println("[Scene] Duplicate GameObject id '" + id + "' on '"
+                    + go.getName() + "' (already used by '" + existing.getName() + "')");
+            }
+        }
+        for (Component c : go.getComponents()) {
+            registerComponent(c);
+        }
+        for (GameObject child : go.getChildren()) {
+            registerHierarchy(child);
+        }
+    }
+
+    void registerComponent(Component c) {
+        if (c instanceof Behaviour) behaviours.add((Behaviour) c);
+        if (c instanceof Updatable) updatables.add(c);
+        if (c instanceof Renderable) renderables.add(c);
+        if (c instanceof MeshRenderer) addToSpatialIndex((MeshRenderer) c);
+        if (c instanceof Light) lights.add((Light) c);
+
+        String id = c.getId();
+        if (id == null) return;
+        Component existing = componentsById.putIfAbsent(id, c);
+        if (existing != null && existing != c) {
+            System.err.println("[Scene] Duplicate Component id '" + id + "' on '"
+                + c.getGameObject().getName() + "' (already used on '" + existing.getGameObject().getName() + "')");
+        }
+    }
+
+    void unregisterHierarchy(GameObject go) {
+        if (go.getId() != null) {
+            gameObjectsById.remove(go.getId(), go);
+        }
+        for (Component c : go.getComponents()) {
+            if (c.getId() != null) {
+                componentsById.remove(c.getId(), c);
+            }
+            if (c instanceof Behaviour) behaviours.remove(c);
+            if (c instanceof Updatable) updatables.remove(c);
+            if (c instanceof Renderable) renderables.remove(c);
+            if (c instanceof MeshRenderer) staticRenderables.remove(c);
+            if (c instanceof MeshRenderer && ((MeshRenderer) c).isStatic()) removeFromStaticBatches((MeshRenderer) c);
+            if (c instanceof MeshRenderer) removeFromSpatialIndex((MeshRenderer) c);
+            if (c instanceof Light) lights.remove(c);
+        }
+        for (GameObject child : go.getChildren()) {
+            unregisterHierarchy(child);
+        }
+    }
+
+    // Awake and Start run for every registered Behaviour, enabled or not;
+    // the enabled flag only gates the per-frame Update and render phases
     public void Start() {
-        for (GameObject go : gameObjects)
-            go.Start();
+        for (int i = 0; i < behaviours.size(); i++)
+            behaviours.get(i).Start();
 
         spotLight = (Light)findComponentById("spotlight_light");
         baseSpotlightStrength = spotLight.getIntensity();
         spotlightController = (SpotlightController)findComponentById("spotlightController");
         beeController = (BeeController)findComponentById("beeController");
         globalLightController = (GlobalLightController)findComponentById("globalLightController");
+
+        bakeStatics();
+    }
+
+    /**
+     * Bakes every static GameObject (and with it every static subtree): the
+     * world matrix and bounds are computed once, the transform drops out of
+     * the update pass and the spatial-index refit, and opaque MeshRenderers
+     * move to the static render list. Objects flagged static under a moving
+     * parent are left dynamic.
+     */
+    private void bakeStatics() {
+        UpdateTransforms();
+        int baked = 0;
+        for (GameObject go : gameObjects) {
+            baked += bakeStatic(go, true);
+        }
+        if (baked == 0) return;
+
+        renderables.removeIf(c -> c instanceof MeshRenderer && ((MeshRenderer) c).isStatic()
+            && !((MeshRenderer) c).getSharedMaterial().isTransparent());
+
+        // keep only moving renderers in the refit arrays
+        int kept = 0;
+        for (int i = 0; i < spatialRenderers.size(); i++) {
+            MeshRenderer mr = spatialRenderers.get(i);
+            if (mr.isStatic()) {
+                mr.getWorldBounds(scratchBounds, 0);
+                spatialIndex.update(spatialProxies[i], scratchBounds, 0);
+                staticSpatialProxies.put(mr, spatialProxies[i]);
+            } else {
+                spatialRenderers.set(kept, mr);
+                spatialProxies[kept] = spatialProxies[i];
+                spatialVersions[kept] = spatialVersions[i];
+                kept++;
+            }
+        }
+        spatialRenderers.subList(kept, spatialRenderers.size()).clear();
+        System.out.println("[Scene] Baked " + baked + " static GameObjects");
+
+        buildStaticBatches();
+    }
+
+    /**
+     * Merges the opaque static renderers that share a material into one
+     * StaticBatch per material. Renderers alone with their material stay
+     * in the static list. Needs the GL context, so it is skipped without one.
+     */
+    private void buildStaticBatches() {
+        if (glContext == null) return;
+
+        Map<Material, List<MeshRenderer>> byMaterial = new LinkedHashMap<>();
+        for (MeshRenderer mr : staticRenderables) {
+            byMaterial.computeIfAbsent(mr.getSharedMaterial(), m -> new ArrayList<>()).add(mr);
+        }
+        int merged = 0;
+        for (Map.Entry<Material, List<MeshRenderer>> group : byMaterial.entrySet()) {
+            List<MeshRenderer> members = group.getValue();
+            if (members.size() < 2) continue;
+
+            StaticBatch batch = new StaticBatch(group.getKey());
+            for (MeshRenderer mr : members) {
+                batch.add(mr.getMesh(), mr.getModelMatrix());
+            }
+            batch.build(glContext);
+            staticBatches.add(batch);
+            staticBatchMembers.add(members.toArray(new MeshRenderer[0]));
+            staticRenderables.removeAll(members);
+            batchVisible = new boolean[Math.max(batchVisible.length, members.size())];
+            merged += members.size();
+        }
+        if (merged > 0) {
+            System.out.println("[Scene] Merged " + merged + " static renderers into "
+                + staticBatches.size() + " batches");
+        }
+    }
+
+    private void removeFromStaticBatches(MeshRenderer mr) {
+        for (MeshRenderer[] members : staticBatchMembers) {
+            for (int i = 0; i < members.length; i++) {
+                if (members[i] == mr) members[i] = null;
+            }
+        }
+    }
+
+    // parentBaked: the parent is baked, or go is a root
+    private int bakeStatic(GameObject go, boolean parentBaked) {
+        boolean bake = go.isStatic() && parentBaked && !go.getTransform().isStatic();
+        int baked = 0;
+        if (bake) {
+            go.getTransform().bakeStatic();
+            for (MeshRenderer mr : go.getComponents(MeshRenderer.class)) {
+                mr.bakeStatic();
+                if (!mr.getSharedMaterial().isTransparent()) staticRenderables.add(mr);
+            }
+            baked++;
+        } else if (go.isStatic() && !go.getTransform().isStatic()) {
+            System.err.println("[Scene] '" + go.getName() + "' is static but its parent moves; left dynamic");
+        }
+        for (GameObject child : go.getChildren()) {
+            baked += bakeStatic(child, go.getTransform().isStatic());
+        }
+        return baked;
     }
 
     public void Update() {
-        for (GameObject go : gameObjects)
-            go.Update();
+        for (int i = 0; i < updatables.size(); i++) {
+            Component c = updatables.get(i);
+            if (c.isEnabled())
+                ((Updatable) c).Update();
+        }
+        if (entityWorld != null)
+            entityWorld.update();
+    }
+
+    // Recomputes the world matrices of every transform moved since the last
+    // call, parents first, in one linear pass. Run between Update and render.
+    public void UpdateTransforms() {
+        if (parallelTransforms) {
+            transformStore.updateWorldMatricesParallel(ForkJoinPool.commonPool(), parallelTransformThreshold);
+        } else {
+            transformStore.updateWorldMatrices();
+        }
+        if (entityWorld != null) {
+            entityTransforms.update(entityWorld);
+        }
+        refitSpatialIndex();
+    }
+
+    /**
+     * Bounding-volume tree of every MeshRenderer's world bounds, for radius,
+     * cone, ray and frustum queries. Refit by UpdateTransforms, so during
+     * Update it reflects the previous frame's positions.
+     */
+    public BoundsTree<MeshRenderer> getSpatialIndex() {
+        return spatialIndex;
+    }
+
+    private void addToSpatialIndex(MeshRenderer mr) {
+        int i = spatialRenderers.size();
+        if (i == spatialProxies.length) {
+            spatialProxies = Arrays.copyOf(spatialProxies, i * 2);
+            spatialVersions = Arrays.copyOf(spatialVersions, i * 2);
+        }
+        mr.getWorldBounds(scratchBounds, 0);
+        spatialRenderers.add(mr);
+        spatialProxies[i] = spatialIndex.insert(mr, scratchBounds, 0);
+        spatialVersions[i] = mr.getGameObject().getTransform().getWorldVersion();
+    }
+
+    private void removeFromSpatialIndex(MeshRenderer mr) {
+        int i = spatialRenderers.indexOf(mr);
+        if (i < 0) {
+            Integer proxy = staticSpatialProxies.remove(mr);
+            if (proxy != null) spatialIndex.remove(proxy);
+            return;
+        }
+        spatialIndex.remove(spatialProxies[i]);
+        int last = spatialRenderers.size() - 1;
+        spatialRenderers.set(i, spatialRenderers.get(last));
+        spatialProxies[i] = spatialProxies[last];
+        spatialVersions[i] = spatialVersions[last];
+        spatialRenderers.remove(last);
+    }
+
+    // Updates the bounds of renderers whose world matrix changed since they were last indexed
+    private void refitSpatialIndex() {
+        for (int i = 0; i < spatialRenderers.size(); i++) {
+            MeshRenderer mr = spatialRenderers.get(i);
+            int version = mr.getGameObject().getTransform().getWorldVersion();
+            if (version != spatialVersions[i]) {
+                mr.getWorldBounds(scratchBounds, 0);
+                spatialIndex.update(spatialProxies[i], scratchBounds, 0);
+                spatialVersions[i] = version;
+            }
+        }
+    }
+
+    // Splits UpdateTransforms across independent subtrees once the scene has at least threshold transforms
+    public void setParallelTransformUpdate(boolean enabled, int threshold) {
+        parallelTransforms = enabled;
+        parallelTransformThreshold = threshold;
     }
 
     public void CallAwake(){
-        for (GameObject go : gameObjects)
-            go.Awake();
+        for (int i = 0; i < behaviours.size(); i++)
+            behaviours.get(i).Awake();
+    }
+
+    public EntityWorld getEntityWorld() {
+        return entityWorld;
+    }
+
+    public EntityWorld getOrCreateEntityWorld() {
+        if (entityWorld == null) {
+            entityWorld = new EntityWorld();
+        }
+        return entityWorld;
     }
 
     public String getName(){
@@ -93,69 +415,136 @@ public class Scene {
     }
 
     public void render(GL3 gl) {
+        Mat4 viewMatrix = mainCamera.getViewMatrix();
+        Mat4 perspectiveMatrix = mainCamera.getPerspectiveMatrix();
+        Vec3 camPos = mainCamera.getGameObject().getTransform().GetWorldPositionReadOnly();
+
+        // Per-frame data every shader reads from its uniform blocks
+        LightSnapshot lights = gatherActiveLights();
+        float timeOfDay = (skybox != null) ? skybox.GetTimeOfDay() : 0.0f;
+        frameUniforms.update(gl, viewMatrix, perspectiveMatrix, camPos, timeOfDay, lights);
+
         // 1. Render skybox first (if it exists)
         if (skybox != null) {
-            skybox.render(gl, mainCamera.getViewMatrix(), mainCamera.getPerspectiveMatrix());
+            skybox.render(gl, viewMatrix, perspectiveMatrix);
         }
 
-        Mat4 viewMatrix = mainCamera.getViewMatrix();
-        Mat4 perspectiveMatrix = mainCamera.getPerspectiveMatrix();
-        Vec3 camPos = mainCamera.getGameObject().getTransform().GetWorldPosition();
-
-        // 2. Render all GameObjects
-        List<GameObject> opaque = new ArrayList<>();
-        List<GameObject> transparent = new ArrayList<>();
-
-        for (GameObject obj : gameObjects) {
-            MeshRenderer mr = obj.getComponent(MeshRenderer.class);
-            if (mr == null){
-                // we will still need to render empties
-                // because of their children
-                opaque.add(obj);
-                continue;
-            } 
+        // 2. Render all enabled Renderables inside the view frustum
+        renderQueue.begin(viewMatrix);
+        cullMeshRenderers(viewMatrix, perspectiveMatrix);
+
+        // Static batches draw their visible members' index ranges in one call
+        for (int b = 0; b < staticBatches.size(); b++) {
+            MeshRenderer[] members = staticBatchMembers.get(b);
+            StaticBatch batch = staticBatches.get(b);
+            for (int i = 0; i < members.length; i++) {
+                MeshRenderer mr = members[i];
+                if (mr != null && mr.getSharedMaterial() != batch.getMaterial()) {
+                    // Given its own material since the batch was built; drawn on its own from now on
+                    members[i] = null;
+                    staticRenderables.add(mr);
+                    mr = null;
+                }
+                batchVisible[i] = mr != null && mr.isEnabled() && isVisible(mr);
+            }
+            batch.draw(gl, batchVisible);
+        }
 
-            if (mr.getMaterial().isTransparent())
-                transparent.add(obj);
-            else
-                opaque.add(obj);
+        // Queue MeshRenderers and entities; other Renderables draw themselves
+        for (int i = 0; i < staticRenderables.size(); i++) {
+            MeshRenderer mr = staticRenderables.get(i);
+            if (mr.isEnabled() && isVisible(mr))
+                renderQueue.add(mr.getMesh(), mr.getSharedMaterial(), mr.getModelMatrix());
+        }
+        for (int i = 0; i < renderables.size(); i++) {
+            Component c = renderables.get(i);
+            if (!c.isEnabled()) continue;
+            if (c instanceof MeshRenderer) {
+                MeshRenderer mr = (MeshRenderer) c;
+                if (isVisible(mr))
+                    renderQueue.add(mr.getMesh(), mr.getSharedMaterial(), mr.getModelMatrix());
+                continue;
+            }
+            ((Renderable) c).render(gl, viewMatrix, perspectiveMatrix, camPos, lights);
         }
 
-        // --- PASS 1: OPAQUE OBJECTS ---
-        for (GameObject obj : opaque) {
-            obj.render(gl, viewMatrix, perspectiveMatrix, camPos, getActiveLights());
+        if (entityWorld != null) {
+            entityRenderer.enqueue(entityWorld, renderQueue, frustumCulling ? frustum : null);
+            visibleCount += entityRenderer.getVisibleCount();
+            culledCount += entityRenderer.getCulledCount();
         }
 
-        // --- PASS 2: TRANSPARENT OBJECTS (sorted back->front) ---
-        transparent.sort((a, b) -> {
-            float da = a.getTransform().GetWorldPosition().distance(camPos);
-            float db = b.getTransform().GetWorldPosition().distance(camPos);
-            return Float.compare(db, da);
-        });
+        // Opaque draws grouped by shader, material and mesh (front to back),
+        // then transparent draws back to front
+        renderQueue.sort();
+        renderQueue.submit(gl);
+
+        // 3. Render debug axes for Transforms that have it enabled
+        renderDebugAxes(gl, viewMatrix, perspectiveMatrix, camPos);
+    }
+
+    /**
+     * Marks the MeshRenderers whose world bounds intersect the camera's
+     * frustum for this frame. The spatial index is walked top-down, so a
+     * node outside the frustum rejects everything below it in one test.
+     */
+    private void cullMeshRenderers(Mat4 view, Mat4 projection) {
+        frameNumber++;
+        visibleCount = 0;
+        culledCount = 0;
+        if (!frustumCulling) {
+            return;
+        }
+        frustum.set(projection, view);
+        spatialIndex.queryFrustum(frustum, visibleRenderers);
+        for (int i = 0; i < visibleRenderers.size(); i++) {
+            visibleRenderers.get(i).markVisible(frameNumber);
+        }
+    }
 
-        for (GameObject obj : transparent) {
-            obj.render(gl, viewMatrix, perspectiveMatrix, camPos, getActiveLights());
+    // Tests and counts an enabled renderer
+    private boolean isVisible(MeshRenderer mr) {
+        if (!frustumCulling || mr.isVisible(frameNumber)) {
+            visibleCount++;
+            return true;
         }
+        culledCount++;
+        return false;
+    }
 
-        // 3. Render debug axes for Transforms that have it enabled
-        Vec3 cameraPos = mainCamera.getGameObject().getTransform().GetWorldPosition();
-        renderDebugAxes(gl, viewMatrix, perspectiveMatrix, cameraPos);
+    public void setFrustumCulling(boolean enabled) {
+        frustumCulling = enabled;
+    }
+
+    public boolean isFrustumCulling() {
+        return frustumCulling;
+    }
+
+    // Renderers (and entities) drawn in the last frame
+    public int getVisibleCount() {
+        return visibleCount;
     }
 
-    public List<Light> getActiveLights(){
-        List<Light> lights = new ArrayList<>();
-        collectLights(gameObjects, lights);
-        return lights;
+    // Renderers (and entities) skipped by frustum culling in the last frame
+    public int getCulledCount() {
+        return culledCount;
     }
 
-    private void collectLights(List<GameObject> gameObjects, List<Light> lights) {
-        for (GameObject gameObj : gameObjects) {
-            Light light = gameObj.getComponent(Light.class);
-            if (light != null && light.isEnabled()) {
-                lights.add(light);
+    // Refills the snapshot from the registered lights; called once at the start of render
+    private LightSnapshot gatherActiveLights() {
+        activeLights.clear();
+        for (int i = 0; i < lights.size(); i++) {
+            Light light = lights.get(i);
+            if (light.isEnabled() && !activeLights.add(light)) {
+                break;
             }
-            collectLights(gameObj.getChildren(), lights);
         }
+        return activeLights;
+    }
+
+    // The enabled lights as gathered for the last rendered frame
+    public LightSnapshot getActiveLights() {
+        return activeLights;
     }
 
     public void findAndSetMainCamera() {
@@ -200,25 +589,7 @@ public class Scene {
      */
     public GameObject findGameObjectById(String id) {
         if (id == null) return null;
-        
-        for (GameObject go : gameObjects) {
-            GameObject found = findGameObjectByIdRecursive(go, id);
-            if (found != null) return found;
-        }
-        return null;
-    }
-    
-    private GameObject findGameObjectByIdRecursive(GameObject go, String id) {
-        if (id.equals(go.getId())) {
-            return go;
-        }
-        
-        for (GameObject child : go.getChildren()) {
-            GameObject found = findGameObjectByIdRecursive(child, id);
-            if (found != null) return found;
-        }
-        
-        return null;
+        return gameObjectsById.get(id);
     }
 
     /**
@@ -226,29 +597,7 @@ public class Scene {
      */
     public Component findComponentById(String id) {
         if (id == null) return null;
-        
-        for (GameObject go : gameObjects) {
-            Component found = findComponentByIdRecursive(go, id);
-            if (found != null) return found;
-        }
-        return null;
-    }
-    
-    private Component findComponentByIdRecursive(GameObject go, String id) {
-        // Check all components on this GameObject
-        for (Component c : go.getComponents()) {
-            if (id.equals(c.getId())) {
-                return c;
-            }
-        }
-        
-        // Check children
-        for (GameObject child : go.getChildren()) {
-            Component found = findComponentByIdRecursive(child, id);
-            if (found != null) return found;
-        }
-        
-        return null;
+        return componentsById.get(id);
     }
 
     public void resolveAllReferences() {
@@ -10,6 +10,7 @@ import engine.components.core.Component;
 import engine.components.core.Renderable;
 import engine.gmaths.Mat4;
 import engine.gmaths.Vec3;
+import engine.rendering.GLStateCache;
 import engine.rendering.Material;
 import engine.rendering.Mesh;
 /* I declare that this code is my own work*/
@@ -20,10 +21,18 @@ jbala1@sheffield.ac.uk
 public class Skybox{
     private Material skyboxMaterial;
     private Mesh skyboxMesh;
+    private final Mat4 viewNoTranslation = new Mat4();
+    private final Mat4 mvp = new Mat4();
+    // Shared with the other shaders through FrameUniforms; the material's value is only the start time
+    private float timeOfDay = 0.0f;
 
     public Skybox(GL3 gl, Material skyboxMaterial) {
         this.skyboxMaterial = skyboxMaterial;
         this.skyboxMesh = createSkyboxCube(gl);
+        Object initial = skyboxMaterial.getUniform("timeOfDay");
+        if (initial instanceof Number) {
+            this.timeOfDay = ((Number) initial).floatValue();
+        }
     }
     private Mesh createSkyboxCube(GL3 gl) {
         // Skybox cube vertices (just positions, padded with dummy normals and UVs)
@@ -75,38 +84,42 @@ public class Skybox{
 
     public void render(GL3 gl, Mat4 viewMatrix, Mat4 projectionMatrix) {
         // Disable face culling so we can see inside the cube
-        gl.glDisable(GL3.GL_CULL_FACE);
+        GLStateCache.setEnabled(gl, GL3.GL_CULL_FACE, false);
         
-        gl.glDepthFunc(GL3.GL_LEQUAL);
-        gl.glDepthMask(false); // Don't write to depth buffer
+        GLStateCache.depthFunc(gl, GL3.GL_LEQUAL);
+        GLStateCache.depthMask(gl, false); // Don't write to depth buffer
         
         // Remove translation from view matrix
-        Mat4 viewNoTranslation = removeTranslation(viewMatrix);
+        removeTranslation(viewMatrix, viewNoTranslation);
         
         // Use skybox shader
         skyboxMaterial.useShader(gl);
         skyboxMaterial.apply(gl);
         
         // Set MVP matrix
-        Mat4 mvp = Mat4.multiply(projectionMatrix, viewNoTranslation);
-        skyboxMaterial.getShader().setFloatArray(gl, "mvpMatrix", mvp.toFloatArrayForGLSL());
+        Mat4.multiplyInto(projectionMatrix, viewNoTranslation, mvp);
+        skyboxMaterial.getShader().setMat4(gl, "mvpMatrix", mvp);
         
         // Render
         skyboxMesh.render(gl);
         
         // Restore defaults
-        gl.glDepthMask(true);
-        gl.glDepthFunc(GL3.GL_LESS);
-        gl.glEnable(GL3.GL_CULL_FACE); // Re-enable face culling for normal objects
+        GLStateCache.depthMask(gl, true);
+        GLStateCache.depthFunc(gl, GL3.GL_LESS);
+        GLStateCache.setEnabled(gl, GL3.GL_CULL_FACE, true); // Re-enable face culling for normal objects
     }
 
     public void SetTimeOfDay(float timeOfDay){
-        skyboxMaterial.setUniform("timeOfDay", timeOfDay);
+        this.timeOfDay = timeOfDay;
+    }
+
+    public float GetTimeOfDay(){
+        return timeOfDay;
     }
     
-    private Mat4 removeTranslation(Mat4 view) {
-        // Create a copy and zero out the translation column (4th column = indices 3, 7, 11)
-        Mat4 result = new Mat4(view);
+    private Mat4 removeTranslation(Mat4 view, Mat4 result) {
+        // Copy and zero out the translation column (4th column = indices 12, 13, 14)
+        result.set(view);
         result.set(0, 3, 0.0f);
         result.set(1, 3, 0.0f);
         result.set(2, 3, 0.0f);
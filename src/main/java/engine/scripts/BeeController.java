@@ -7,7 +7,6 @@ import com.jogamp.opengl.GL3;
 
 import engine.components.Behaviour;
 import engine.components.Camera;
-import engine.components.Light;
 import engine.components.Transform;
 import engine.components.core.Renderable;
 import engine.debug.BezierVisualizer;
@@ -16,6 +15,7 @@ import engine.gmaths.Vec3;
 import engine.math.ArcLengthTable;
 import engine.math.BezierCurve;
 import engine.math.BezierPath;
+import engine.rendering.LightSnapshot;
 /* I declare that this code is my own work*/
 /* Author Jakub Bala 
 jbala1@sheffield.ac.uk
@@ -53,6 +53,14 @@ public class BeeController extends Behaviour implements Renderable{
     private boolean poseMode = false;
     private int pose = 1;
 
+    // scratch vectors reused every frame
+    private final Vec3 bezierPos = new Vec3();
+    private final Vec3 tangent = new Vec3();
+    private final Vec3 lookTarget = new Vec3();
+    private final Vec3 bobDelta = new Vec3();
+    private final Vec3 eyeScale = new Vec3();
+    private static final Vec3 WORLD_UP = new Vec3(0, 1, 0);
+
     @Override
     public void Start(){
         // Bezier visualisation shit
@@ -139,7 +147,7 @@ public class BeeController extends Behaviour implements Renderable{
 
         // Evaluate actual curve
         BezierCurve curve = beePath.getCurve(curveIndex);
-        Vec3 bezierPos = curve.evaluate(localU);
+        curve.evaluate(localU, bezierPos);
 
         // Set bee position
         getGameObject().getTransform().SetLocalPosition(
@@ -147,13 +155,13 @@ public class BeeController extends Behaviour implements Renderable{
         );
 
         // Orient bee to face forward along the path
-        Vec3 tangent = curve.tangentNormalized(localU);
-        Vec3 lookTarget = Vec3.add(bezierPos, tangent);  // Point ahead along tangent
+        curve.tangentNormalized(localU, tangent);
+        Vec3.add(bezierPos, tangent, lookTarget);  // Point ahead along tangent
         lookTarget.y = bezierPos.y;
         
         getGameObject().getTransform().LookAt(
             lookTarget,        
-            new Vec3(0, 1, 0)// world up vector
+            WORLD_UP// world up vector
         );
     }
 
@@ -164,7 +172,7 @@ public class BeeController extends Behaviour implements Renderable{
         float bobAmount  = 0.3f;
         float delta = (float)Math.sin(time * bobSpeed) * bobAmount;
         // apply vertical translation
-        getGameObject().getTransform().Translate(new Vec3(0, delta, 0));
+        getGameObject().getTransform().Translate(bobDelta.set(0, delta, 0));
     }
 
     // Bee constantly animates this unconditionally.
@@ -218,7 +226,7 @@ public class BeeController extends Behaviour implements Renderable{
 
         // increase eye size
         float scaleMultiplier = 1 + (fear * fearMultipler);
-        Vec3 eyeScale = Vec3.multiply(baseEyeScale, scaleMultiplier);
+        Vec3.multiplyInto(baseEyeScale, scaleMultiplier, eyeScale);
         leftEye.SetLocalScale(eyeScale.x, eyeScale.y, eyeScale.z);
         rightEye.SetLocalScale(eyeScale.x, eyeScale.y, eyeScale.z);
     }
@@ -301,7 +309,7 @@ public class BeeController extends Behaviour implements Renderable{
     }
 
     @Override
-    public void render(GL3 gl, Mat4 view, Mat4 projection, Vec3 cameraPosition, List<Light> lights) {
+    public void render(GL3 gl, Mat4 view, Mat4 projection, Vec3 cameraPosition, LightSnapshot lights) {
         //bezierVisualizer.updatePath(gl, beePath);
         //bezierVisualizer.render(gl, view, projection);
     }
@@ -21,10 +21,8 @@ public class CloudController extends Behaviour{
     @Override
     public void Update() {
 
-        // Change Daylight cycle time uniform in cloud material
-        float time = GameController.getDayLightCycle();
+        // Time of day reaches the cloud shader through the per-frame uniform block
         Material cloudMaterial = getGameObject().getComponent(engine.components.MeshRenderer.class).getMaterial();
-        cloudMaterial.setUniform("timeOfDay", time);
 
         // Move clouds slowly
         float speed = -0.03f;
@@ -13,6 +13,7 @@ import engine.gmaths.Vec3;
 import engine.rendering.Material;
 import engine.rendering.Shader;
 import engine.rendering.TextureLibrary;
+import engine.scene.GameObject;
 /* I declare that this code is my own work*/
 /* Author Jakub Bala 
 jbala1@sheffield.ac.uk
@@ -46,6 +47,9 @@ public class MenhirController extends Behaviour{
     private int currentFrameIndex = 0;
     private float frameInterval = 0.15f;
 
+    // reused result buffer for ScanForBee's cone query
+    private final List<MeshRenderer> inView = new ArrayList<>();
+
     @Override
     public void Awake(){
         LoadAnimationFrames();
@@ -87,25 +91,30 @@ public class MenhirController extends Behaviour{
 
     private void ScanForBee(){
 
-        Vec3 beePos = new Vec3(beeController.getGameObject().getTransform().GetWorldPosition());
-        Vec3 forward = getGameObject().getTransform().GetForward();
-
-        Vec3 myPos = getGameObject().getTransform().GetWorldPosition();
-        Vec3 diff = Vec3.subtract(beePos, myPos);
-        float distance = Vec3.magnitude(diff);
-        Vec3 direction = Vec3.normalize(diff);
-
-        float dot = Vec3.dotProduct(forward, direction);
-        // bee is 45f degrees either side of forward
-        if(distance < detectionDistance && dot > detectionAngle){
-
-            ChangeState(1);
-            return;
+        // every renderer whose bounds enter the detection cone in front of the menhir
+        Transform transform = getGameObject().getTransform();
+        getGameObject().getScene().getSpatialIndex().queryCone(
+            transform.GetWorldPositionReadOnly(), transform.GetForwardReadOnly(),
+            detectionAngle, detectionDistance, inView);
+
+        GameObject bee = beeController.getGameObject();
+        for (int i = 0; i < inView.size(); i++) {
+            if (isPartOf(inView.get(i).getGameObject(), bee)) {
+                ChangeState(1);
+                return;
+            }
         }
 
         ChangeState(0);
     }
 
+    private static boolean isPartOf(GameObject go, GameObject root) {
+        for (; go != null; go = go.getParent()) {
+            if (go == root) return true;
+        }
+        return false;
+    }
+
     private void ChangeState(int newState){
         if(state == newState) return;
         stateChangeTime = (float)GameController.getElapsedTime();
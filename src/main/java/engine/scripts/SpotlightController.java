@@ -2,8 +2,6 @@ package engine.scripts;
 
 import engine.components.Behaviour;
 import engine.components.Transform;
-import engine.gmaths.Mat4;
-import engine.gmaths.Mat4Transform;
 import engine.gmaths.Vec3;
 /* I declare that this code is my own work*/
 /* Author Jakub Bala 
@@ -27,6 +25,13 @@ public class SpotlightController extends Behaviour{
     private float currentAngle = 0f;
     private double lastTime = 0;
 
+    // scratch vectors reused every frame
+    private final Vec3 targetPos = new Vec3();
+    private final Vec3 armPivotWorldPos = new Vec3();
+    private final Vec3 parentForward = new Vec3();
+    private final Vec3 toTarget = new Vec3();
+    private static final Vec3 WORLD_UP = new Vec3(0, 1, 0);
+
     @Override
     public void Start(){
         arm_pivot = getGameObject().getTransform();
@@ -51,23 +56,17 @@ public class SpotlightController extends Behaviour{
     }
 
     private void LookAtTarget(){
-        Vec3 targetPos = new Vec3(target.GetWorldPosition()); 
-        Vec3 arm_pivot_w_pos = new Vec3(arm_pivot.GetWorldPosition());
+        target.GetWorldPosition(targetPos);
+        Vec3 arm_pivot_w_pos = arm_pivot.GetWorldPosition(armPivotWorldPos);
 
         // Get the arms forward direction in world space (before any rotation)
         Transform armParent = arm_pivot.getGameObject().getParent().getTransform();
-        Mat4 parentWorld = armParent.getWorldMatrix();
         
         // Parents forward direction 
-        Vec3 parentForward = new Vec3(
-            -parentWorld.get(0, 2),
-            -parentWorld.get(1, 2),
-            -parentWorld.get(2, 2)
-        );
-        parentForward.normalize();
+        armParent.GetForward(parentForward);
         
         // project target direction onto the parents forward plane
-        Vec3 toTarget = Vec3.subtract(arm_pivot_w_pos, targetPos);
+        Vec3.subtractInto(arm_pivot_w_pos, targetPos, toTarget);
         
         // distance along parents forward direction
         float forwardDist = Vec3.dotProduct(toTarget, parentForward);
@@ -83,7 +82,7 @@ public class SpotlightController extends Behaviour{
         // then for the light itself, 
         light_pivot.LookAt(
             targetPos,        
-            new Vec3(0, 1, 0)// world up vector
+            WORLD_UP// world up vector
         );
     }
 
@@ -106,8 +105,7 @@ public class SpotlightController extends Behaviour{
         float z = (float) (Math.sin(currentAngle) * circling_radius);
 
         // Apply to the spotlighttarget transform
-        Vec3 tPos = new Vec3(target.GetPosition());
-        target.SetLocalPosition(x, tPos.y, z);
+        target.SetLocalPosition(x, target.GetPosition().y, z);
 
     }
 }